@@ -0,0 +1,52 @@
+package com.github.stefanbirkner.scroole.benchmarks;
+
+import com.github.stefanbirkner.scroole.CodeGenerator;
+import com.github.stefanbirkner.scroole.model.ClassSpecification;
+import com.github.stefanbirkner.scroole.model.Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast the {@link CodeGenerator} creates the Java code for a
+ * {@link ClassSpecification}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class CodeGeneratorBenchmark {
+    @Param({"NARROW", "WIDE", "DEEP_GENERICS"})
+    public Shape shape;
+
+    private final CodeGenerator codeGenerator = new CodeGenerator();
+    private ClassSpecification specification;
+
+    @Setup
+    public void createSpecification() {
+        specification = new Parser().parse(
+                "com.example.Value", shape.createScrooleCode());
+    }
+
+    @Benchmark
+    public String createCode() {
+        return codeGenerator.createCode(specification);
+    }
+
+    /**
+     * Creates the code with a new generator, so that the type cache is
+     * empty.
+     */
+    @Benchmark
+    public String createCodeWithColdTypeCache() {
+        return new CodeGenerator().createCode(specification);
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.stefanbirkner.scroole.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.apache.commons.io.FileUtils.write;
+
+/**
+ * A directory with synthetic Scroole files.
+ */
+class Corpus {
+    private static final int FILES_PER_PACKAGE = 100;
+
+    private Corpus() {
+    }
+
+    /**
+     * Creates a directory with Scroole files. The files are spread across
+     * packages with 100 files each.
+     *
+     * @param numberOfFiles the number of Scroole files.
+     * @param shape the shape of the classes.
+     * @return the directory with the Scroole files.
+     * @throws IOException if the files cannot be written.
+     */
+    static File createScrooleFiles(int numberOfFiles, Shape shape)
+            throws IOException {
+        File directory = createTemporaryDirectory("scroole-corpus");
+        String scrooleCode = shape.createScrooleCode();
+        for (int i = 0; i < numberOfFiles; ++i) {
+            File file = new File(directory, "p" + (i / FILES_PER_PACKAGE)
+                    + "/Value" + i + ".scroole");
+            write(file, scrooleCode, "UTF-8");
+        }
+        return directory;
+    }
+
+    static File createTemporaryDirectory(String prefix) throws IOException {
+        return Files.createTempDirectory(prefix).toFile();
+    }
+}
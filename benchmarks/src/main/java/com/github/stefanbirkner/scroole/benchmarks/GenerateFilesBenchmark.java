@@ -0,0 +1,69 @@
+package com.github.stefanbirkner.scroole.benchmarks;
+
+import com.github.stefanbirkner.scroole.Scroole;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.commons.io.FileUtils.cleanDirectory;
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+
+/**
+ * Measures a complete run of {@link Scroole#generateFiles()} with an empty
+ * output directory. Each iteration is a single run. Use
+ * {@code -p shape=WIDE} for wide classes, but be aware that 100,000 wide
+ * classes need several gigabytes of disk space.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GenerateFilesBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int files;
+
+    @Param({"NARROW"})
+    public Shape shape;
+
+    private File directoryWithScrooleFiles;
+    private File outputDirectory;
+
+    @Setup
+    public void createScrooleFiles() throws IOException {
+        directoryWithScrooleFiles = Corpus.createScrooleFiles(files, shape);
+        outputDirectory = Corpus.createTemporaryDirectory("scroole-output");
+    }
+
+    @Setup(Level.Iteration)
+    public void cleanOutputDirectory() throws IOException {
+        cleanDirectory(outputDirectory);
+    }
+
+    @TearDown
+    public void deleteDirectories() throws IOException {
+        deleteDirectory(directoryWithScrooleFiles);
+        deleteDirectory(outputDirectory);
+    }
+
+    @Benchmark
+    public void generateFiles() throws IOException {
+        new Scroole(directoryWithScrooleFiles, outputDirectory)
+                .generateFiles();
+    }
+}
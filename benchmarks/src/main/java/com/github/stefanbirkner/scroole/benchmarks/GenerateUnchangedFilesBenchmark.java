@@ -0,0 +1,61 @@
+package com.github.stefanbirkner.scroole.benchmarks;
+
+import com.github.stefanbirkner.scroole.Scroole;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.commons.io.FileUtils.deleteDirectory;
+
+/**
+ * Measures a run of {@link Scroole#generateFiles()} when no Scroole file
+ * changed since the previous run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class GenerateUnchangedFilesBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int files;
+
+    @Param({"NARROW"})
+    public Shape shape;
+
+    private File directoryWithScrooleFiles;
+    private File outputDirectory;
+
+    @Setup
+    public void generateFilesOnce() throws IOException {
+        directoryWithScrooleFiles = Corpus.createScrooleFiles(files, shape);
+        outputDirectory = Corpus.createTemporaryDirectory("scroole-output");
+        runScroole();
+    }
+
+    @TearDown
+    public void deleteDirectories() throws IOException {
+        deleteDirectory(directoryWithScrooleFiles);
+        deleteDirectory(outputDirectory);
+    }
+
+    @Benchmark
+    public void generateFiles() throws IOException {
+        runScroole();
+    }
+
+    private void runScroole() throws IOException {
+        new Scroole(directoryWithScrooleFiles, outputDirectory)
+                .generateFiles();
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.stefanbirkner.scroole.benchmarks;
+
+import java.util.List;
+
+/**
+ * An order key with the equals and hashCode methods that are usually
+ * written by developers or generated by IDEs.
+ */
+public final class HandWrittenOrderKey {
+    private final long customerId;
+    private final String region;
+    private final int quantity;
+    private final double price;
+    private final List<String> tags;
+
+    public HandWrittenOrderKey(long customerId, String region, int quantity,
+            double price, List<String> tags) {
+        this.customerId = customerId;
+        this.region = region;
+        this.quantity = quantity;
+        this.price = price;
+        this.tags = tags;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        HandWrittenOrderKey that = (HandWrittenOrderKey) o;
+
+        if (customerId != that.customerId) return false;
+        if (quantity != that.quantity) return false;
+        if (Double.compare(that.price, price) != 0) return false;
+        if (region != null ? !region.equals(that.region) : that.region != null)
+            return false;
+        return tags != null ? tags.equals(that.tags) : that.tags == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result;
+        long temp;
+        result = (int) (customerId ^ (customerId >>> 32));
+        result = 31 * result + (region != null ? region.hashCode() : 0);
+        result = 31 * result + quantity;
+        temp = Double.doubleToLongBits(price);
+        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        result = 31 * result + (tags != null ? tags.hashCode() : 0);
+        return result;
+    }
+}
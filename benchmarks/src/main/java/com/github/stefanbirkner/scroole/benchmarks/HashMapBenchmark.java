@@ -0,0 +1,81 @@
+package com.github.stefanbirkner.scroole.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Measures the throughput of {@link HashMap} lookups and insertions with
+ * the different implementations of the order key as keys. The lookups use
+ * keys that are equal to, but not the same as the keys in the map.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class HashMapBenchmark {
+    @Param({"GENERATED", "HAND_WRITTEN", "OBJECTS_HASH"})
+    public String implementation;
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    private Object[] keys;
+    private Object[] lookupKeys;
+    private Map<Object, Object> map;
+    private int index = 0;
+
+    @Setup
+    public void fillMap() throws ReflectiveOperationException {
+        OrderKeyFactory factory = Implementation.getFactory(implementation);
+        keys = createKeys(factory);
+        lookupKeys = createKeys(factory);
+        map = new HashMap<>();
+        for (Object key : keys)
+            map.put(key, key);
+    }
+
+    private Object[] createKeys(OrderKeyFactory factory) {
+        Object[] keys = new Object[size];
+        for (int i = 0; i < size; ++i)
+            keys[i] = factory.create(i, "region" + (i % 16), i % 100,
+                    i / 100.0, new ArrayList<>(asList("tag" + (i % 7))));
+        return keys;
+    }
+
+    @Benchmark
+    public Object get() {
+        Object key = lookupKeys[index];
+        index = index + 1 == size ? 0 : index + 1;
+        return map.get(key);
+    }
+
+    @Benchmark
+    public Object put() {
+        Object key = lookupKeys[index];
+        index = index + 1 == size ? 0 : index + 1;
+        return map.put(key, key);
+    }
+
+    @Benchmark
+    public Map<Object, Object> fillNewMap() {
+        Map<Object, Object> newMap = new HashMap<>();
+        for (Object key : keys)
+            newMap.put(key, key);
+        return newMap;
+    }
+}
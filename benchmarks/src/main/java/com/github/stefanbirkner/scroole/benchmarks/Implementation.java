@@ -0,0 +1,54 @@
+package com.github.stefanbirkner.scroole.benchmarks;
+
+import java.util.List;
+
+/**
+ * The implementations of the order key that are available with Java 7. The
+ * record based implementation {@code RecordOrderKey} is only built with
+ * JDK 16 or newer.
+ */
+public enum Implementation implements OrderKeyFactory {
+    GENERATED {
+        @Override
+        public Object create(long customerId, String region, int quantity,
+                double price, List<String> tags) {
+            return new OrderKey(customerId, region, quantity, price, tags);
+        }
+    },
+    HAND_WRITTEN {
+        @Override
+        public Object create(long customerId, String region, int quantity,
+                double price, List<String> tags) {
+            return new HandWrittenOrderKey(
+                    customerId, region, quantity, price, tags);
+        }
+    },
+    OBJECTS_HASH {
+        @Override
+        public Object create(long customerId, String region, int quantity,
+                double price, List<String> tags) {
+            return new ObjectsHashOrderKey(
+                    customerId, region, quantity, price, tags);
+        }
+    };
+
+    private static final String RECORD_FACTORY
+            = "com.github.stefanbirkner.scroole.benchmarks.RecordOrderKeyFactory";
+
+    /**
+     * Returns the factory for an implementation.
+     *
+     * @param name the name of an {@code Implementation} or {@code RECORD}.
+     * @return the factory.
+     * @throws ReflectiveOperationException if the record based
+     * implementation is requested, but has not been built.
+     */
+    static OrderKeyFactory getFactory(String name)
+            throws ReflectiveOperationException {
+        if ("RECORD".equals(name))
+            return (OrderKeyFactory) Class.forName(RECORD_FACTORY)
+                    .newInstance();
+        else
+            return valueOf(name);
+    }
+}
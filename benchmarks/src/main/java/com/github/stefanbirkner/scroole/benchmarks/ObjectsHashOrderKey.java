@@ -0,0 +1,44 @@
+package com.github.stefanbirkner.scroole.benchmarks;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * An order key whose equals and hashCode methods use
+ * {@link java.util.Objects}.
+ */
+public final class ObjectsHashOrderKey {
+    private final long customerId;
+    private final String region;
+    private final int quantity;
+    private final double price;
+    private final List<String> tags;
+
+    public ObjectsHashOrderKey(long customerId, String region, int quantity,
+            double price, List<String> tags) {
+        this.customerId = customerId;
+        this.region = region;
+        this.quantity = quantity;
+        this.price = price;
+        this.tags = tags;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        ObjectsHashOrderKey that = (ObjectsHashOrderKey) o;
+
+        return customerId == that.customerId
+                && quantity == that.quantity
+                && Double.compare(that.price, price) == 0
+                && Objects.equals(region, that.region)
+                && Objects.equals(tags, that.tags);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(customerId, region, quantity, price, tags);
+    }
+}
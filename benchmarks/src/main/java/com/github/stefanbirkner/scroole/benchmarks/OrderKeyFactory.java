@@ -0,0 +1,12 @@
+package com.github.stefanbirkner.scroole.benchmarks;
+
+import java.util.List;
+
+/**
+ * Creates an order key. There is a factory for each implementation of the
+ * order key.
+ */
+public interface OrderKeyFactory {
+    Object create(long customerId, String region, int quantity, double price,
+            List<String> tags);
+}
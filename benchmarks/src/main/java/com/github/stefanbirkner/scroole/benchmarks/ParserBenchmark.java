@@ -0,0 +1,49 @@
+package com.github.stefanbirkner.scroole.benchmarks;
+
+import com.github.stefanbirkner.scroole.model.ClassSpecification;
+import com.github.stefanbirkner.scroole.model.Parser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast the {@link Parser} creates a
+ * {@link ClassSpecification}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class ParserBenchmark {
+    @Param({"NARROW", "WIDE", "DEEP_GENERICS"})
+    public Shape shape;
+
+    private final Parser parser = new Parser();
+    private String scrooleCode;
+
+    @Setup
+    public void createScrooleCode() {
+        scrooleCode = shape.createScrooleCode();
+    }
+
+    @Benchmark
+    public ClassSpecification parseString() {
+        return parser.parse("com.example.Value", scrooleCode);
+    }
+
+    @Benchmark
+    public ClassSpecification parseReader() throws IOException {
+        return parser.parse("com.example.Value",
+                new StringReader(scrooleCode));
+    }
+}
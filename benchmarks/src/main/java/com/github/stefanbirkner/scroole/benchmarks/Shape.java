@@ -0,0 +1,66 @@
+package com.github.stefanbirkner.scroole.benchmarks;
+
+/**
+ * The shape of the synthetic classes that are used by the benchmarks.
+ */
+public enum Shape {
+    /**
+     * A class with a few fields of common types.
+     */
+    NARROW {
+        @Override
+        String createScrooleCode() {
+            return "# A narrow value object.\n"
+                    + "\n"
+                    + "# @return the name.\n"
+                    + "name: java.lang.String\n"
+                    + "count: int\n"
+                    + "tags: java.util.List<java.lang.String>\n";
+        }
+    },
+    /**
+     * A class with 200 fields of mixed types, each of them with Javadoc.
+     */
+    WIDE {
+        @Override
+        String createScrooleCode() {
+            StringBuilder code = new StringBuilder("# A wide value object.\n\n");
+            for (int i = 0; i < 200; ++i)
+                code.append("# @return field ").append(i).append(".\n")
+                        .append("field").append(i).append(": ")
+                        .append(WIDE_TYPES[i % WIDE_TYPES.length])
+                        .append("\n");
+            return code.toString();
+        }
+    },
+    /**
+     * A class with fields that have deeply nested type arguments.
+     */
+    DEEP_GENERICS {
+        @Override
+        String createScrooleCode() {
+            StringBuilder code = new StringBuilder();
+            for (int i = 0; i < 20; ++i)
+                code.append("field").append(i).append(": ")
+                        .append(DEEP_GENERIC_TYPES[i % DEEP_GENERIC_TYPES.length])
+                        .append("\n");
+            return code.toString();
+        }
+    };
+
+    private static final String[] WIDE_TYPES = {
+            "int", "long", "double", "boolean", "java.lang.String", "int[]",
+            "java.math.BigDecimal", "java.util.List<java.lang.String>"};
+
+    private static final String[] DEEP_GENERIC_TYPES = {
+            "java.util.List<java.util.List<java.util.Set<java.util.List<java.lang.String>>>>",
+            "java.util.Map<java.lang.String, java.util.List<java.util.Set<java.lang.Integer>>>",
+            "java.util.Map<java.lang.Long, java.util.List<java.util.List<java.lang.String>>>"};
+
+    /**
+     * Creates the Scroole code of a class with this shape.
+     *
+     * @return the Scroole code.
+     */
+    abstract String createScrooleCode();
+}
@@ -0,0 +1,74 @@
+package com.github.stefanbirkner.scroole.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Compares construction, equals and hashCode of the class that is generated
+ * by Scroole with other implementations of the same value object. Add
+ * {@code -p implementation=RECORD} if the benchmarks have been built with
+ * JDK 16 or newer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class ValueObjectBenchmark {
+    @Param({"GENERATED", "HAND_WRITTEN", "OBJECTS_HASH"})
+    public String implementation;
+
+    //not final, so that the JIT cannot treat the values as constants
+    private long customerId = 4711L;
+    private String region = "north";
+    private int quantity = 12;
+    private double price = 9.99;
+    private List<String> tags = asList("express", "gift", "fragile");
+
+    private OrderKeyFactory factory;
+    private Object key;
+    private Object equalKey;
+    private Object keyWithOtherLastField;
+
+    @Setup
+    public void createKeys() throws ReflectiveOperationException {
+        factory = Implementation.getFactory(implementation);
+        key = factory.create(customerId, region, quantity, price, tags);
+        equalKey = factory.create(customerId, new String(region), quantity,
+                price, new ArrayList<>(tags));
+        keyWithOtherLastField = factory.create(customerId, region, quantity,
+                price, asList("express", "gift", "perishable"));
+    }
+
+    @Benchmark
+    public Object construct() {
+        return factory.create(customerId, region, quantity, price, tags);
+    }
+
+    @Benchmark
+    public int hashCodeOfKey() {
+        return key.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsOfEqualKeys() {
+        return key.equals(equalKey);
+    }
+
+    @Benchmark
+    public boolean equalsOfKeysWithDifferentLastField() {
+        return key.equals(keyWithOtherLastField);
+    }
+}
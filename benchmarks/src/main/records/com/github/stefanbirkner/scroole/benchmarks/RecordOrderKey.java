@@ -0,0 +1,10 @@
+package com.github.stefanbirkner.scroole.benchmarks;
+
+import java.util.List;
+
+/**
+ * An order key whose equals and hashCode methods are provided by the JVM.
+ */
+public record RecordOrderKey(long customerId, String region, int quantity,
+        double price, List<String> tags) {
+}
@@ -0,0 +1,14 @@
+package com.github.stefanbirkner.scroole.benchmarks;
+
+import java.util.List;
+
+/**
+ * Creates {@link RecordOrderKey RecordOrderKeys}.
+ */
+public class RecordOrderKeyFactory implements OrderKeyFactory {
+    @Override
+    public Object create(long customerId, String region, int quantity,
+            double price, List<String> tags) {
+        return new RecordOrderKey(customerId, region, quantity, price, tags);
+    }
+}
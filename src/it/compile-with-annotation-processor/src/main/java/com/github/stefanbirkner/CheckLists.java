@@ -0,0 +1,13 @@
+package com.github.stefanbirkner;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Uses the classes that are generated in the same compiler run. (The
+ * compiler does not run at all if there are no Java files.)
+ */
+public class CheckLists {
+    public static CheckList listWithSingleItem(String title, String name) {
+        return new CheckList(title, asList(new CheckListItem(name)));
+    }
+}
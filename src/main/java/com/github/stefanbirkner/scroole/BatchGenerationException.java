@@ -0,0 +1,45 @@
+package com.github.stefanbirkner.scroole;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thrown if the {@link BatchGenerator} could not create the Java code of
+ * some classes. It provides the cause for each of these classes.
+ */
+public class BatchGenerationException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+    private final transient Map<String, RuntimeException> failures;
+
+    BatchGenerationException(Map<String, RuntimeException> failures) {
+        super(createMessage(failures), failures.values().iterator().next());
+        this.failures = Collections.unmodifiableMap(
+                new LinkedHashMap<>(failures));
+        for (RuntimeException failure : failures.values())
+            if (failure != getCause())
+                addSuppressed(failure);
+    }
+
+    private static String createMessage(
+            Map<String, RuntimeException> failures) {
+        StringBuilder message = new StringBuilder(
+                "Could not generate Java code for " + failures.size()
+                        + " class(es):");
+        for (Map.Entry<String, RuntimeException> failure
+                : failures.entrySet())
+            message.append("\n  ").append(failure.getKey()).append(": ")
+                    .append(failure.getValue());
+        return message.toString();
+    }
+
+    /**
+     * Returns the classes whose Java code could not be created together
+     * with the cause of the failure.
+     *
+     * @return the cause of the failure by the canonical name of the class.
+     */
+    public Map<String, RuntimeException> getFailures() {
+        return failures;
+    }
+}
@@ -0,0 +1,210 @@
+package com.github.stefanbirkner.scroole;
+
+import com.github.stefanbirkner.scroole.model.ClassSpecification;
+import com.github.stefanbirkner.scroole.model.Parser;
+import org.apache.commons.lang3.Validate;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates the Java code of many classes in memory without reading or
+ * writing files. The generator keeps its parser and its cache of parsed
+ * field types for all batches. Therefore use a single generator for all
+ * batches.
+ * <pre>
+ * Map&lt;String, String&gt; scrooleCodes = new LinkedHashMap&lt;&gt;();
+ * scrooleCodes.put("com.acme.Person", "name: String");
+ * scrooleCodes.put("com.acme.Order", "id: long");
+ * Map&lt;String, String&gt; javaCodes = generator.generate(scrooleCodes);
+ * </pre>
+ * <p>A batch generator is thread-safe.
+ */
+public class BatchGenerator {
+    private static final int PENDING_CLASSES_PER_THREAD = 4;
+    private final Parser parser = new Parser();
+    private final CodeGenerator codeGenerator;
+    private volatile int threads = 1;
+
+    /**
+     * Creates a batch generator with its own {@link CodeGenerator}.
+     */
+    public BatchGenerator() {
+        this(new CodeGenerator());
+    }
+
+    /**
+     * Creates a batch generator that uses an existing {@link CodeGenerator}
+     * and its cache of parsed field types.
+     *
+     * @param codeGenerator the generator of the Java code.
+     * @throws NullPointerException if {@code codeGenerator} is null.
+     */
+    public BatchGenerator(CodeGenerator codeGenerator) {
+        Validate.notNull(codeGenerator, "The argument codeGenerator is null.");
+        this.codeGenerator = codeGenerator;
+    }
+
+    /**
+     * Set the number of threads that generate Java code concurrently. The
+     * default is a single thread.
+     *
+     * @param threads the number of threads.
+     * @throws IllegalArgumentException if {@code threads} is not positive.
+     */
+    public void setThreads(int threads) {
+        Validate.isTrue(threads > 0,
+                "The number of threads must be positive but is %d.", threads);
+        this.threads = threads;
+    }
+
+    /**
+     * Creates the Java code of many classes.
+     *
+     * @param scrooleCodes the Scroole code of each class by the canonical
+     *                     name of the class.
+     * @return the Java code of each class by the canonical name of the
+     * class in the order of {@code scrooleCodes}.
+     * @throws BatchGenerationException if the Java code of at least one
+     * class cannot be created. The exception provides every class that
+     * failed.
+     */
+    public Map<String, String> generate(Map<String, String> scrooleCodes) {
+        final Map<String, String> javaCodes = new LinkedHashMap<>();
+        final Map<String, RuntimeException> failures = new LinkedHashMap<>();
+        generate(scrooleCodes, new Listener() {
+            @Override
+            public void generated(String canonicalName, String javaCode) {
+                javaCodes.put(canonicalName, javaCode);
+            }
+
+            @Override
+            public void failed(String canonicalName, RuntimeException e) {
+                failures.put(canonicalName, e);
+            }
+        });
+        if (failures.isEmpty())
+            return javaCodes;
+        else
+            throw new BatchGenerationException(failures);
+    }
+
+    /**
+     * Creates the Java code of many classes and passes the code of each
+     * class to a listener as soon as it is available. The listener is
+     * called by the current thread in the order of {@code scrooleCodes}.
+     * Only a few classes are kept in memory at the same time, even if
+     * {@code scrooleCodes} is a lazy map with a huge number of classes.
+     *
+     * @param scrooleCodes the Scroole code of each class by the canonical
+     *                     name of the class.
+     * @param listener     receives the Java code of each class.
+     */
+    public void generate(Map<String, String> scrooleCodes,
+            Listener listener) {
+        Validate.notNull(scrooleCodes, "The argument scrooleCodes is null.");
+        Validate.notNull(listener, "The argument listener is null.");
+        int threads = this.threads;
+        int maximumPendingClasses = PENDING_CLASSES_PER_THREAD * threads;
+        ExecutorService executor = createExecutor(threads);
+        try {
+            Deque<Pending> pendingClasses = new ArrayDeque<>();
+            for (Map.Entry<String, String> scrooleCode
+                    : scrooleCodes.entrySet()) {
+                //back-pressure: wait for the oldest class
+                if (pendingClasses.size() == maximumPendingClasses)
+                    publish(pendingClasses.removeFirst(), listener);
+                String canonicalName = scrooleCode.getKey();
+                Future<String> javaCode = executor.submit(new Generation(
+                        canonicalName, scrooleCode.getValue()));
+                pendingClasses.addLast(new Pending(canonicalName, javaCode));
+            }
+            while (!pendingClasses.isEmpty())
+                publish(pendingClasses.removeFirst(), listener);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ExecutorService createExecutor(int threads) {
+        if (threads == 1)
+            return new CurrentThreadExecutorService();
+        else
+            return Executors.newFixedThreadPool(threads);
+    }
+
+    private void publish(Pending pending, Listener listener) {
+        try {
+            listener.generated(pending.canonicalName, pending.javaCode.get());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                listener.failed(pending.canonicalName,
+                        (RuntimeException) e.getCause());
+            else
+                throw new IllegalStateException(
+                        "Could not generate the Java code of "
+                                + pending.canonicalName + ".", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(
+                    "Interrupted while generating Java code.", e);
+        }
+    }
+
+    /**
+     * Receives the Java code of the classes of a batch.
+     */
+    public interface Listener {
+        /**
+         * Called with the Java code of a class.
+         *
+         * @param canonicalName the canonical name of the class.
+         * @param javaCode      the Java code of the class.
+         */
+        void generated(String canonicalName, String javaCode);
+
+        /**
+         * Called if the Java code of a class cannot be created. The other
+         * classes are generated nevertheless.
+         *
+         * @param canonicalName the canonical name of the class.
+         * @param e             the reason, e.g. an
+         *                      {@code InvalidScrooleCodeException}.
+         */
+        void failed(String canonicalName, RuntimeException e);
+    }
+
+    private static class Pending {
+        final String canonicalName;
+        final Future<String> javaCode;
+
+        Pending(String canonicalName, Future<String> javaCode) {
+            this.canonicalName = canonicalName;
+            this.javaCode = javaCode;
+        }
+    }
+
+    private class Generation implements Callable<String> {
+        final String canonicalName;
+        final String scrooleCode;
+
+        Generation(String canonicalName, String scrooleCode) {
+            this.canonicalName = canonicalName;
+            this.scrooleCode = scrooleCode;
+        }
+
+        @Override
+        public String call() {
+            ClassSpecification specification = parser.parse(
+                    canonicalName, scrooleCode);
+            return codeGenerator.createCode(specification);
+        }
+    }
+}
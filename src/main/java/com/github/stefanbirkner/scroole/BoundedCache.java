@@ -0,0 +1,57 @@
+package com.github.stefanbirkner.scroole;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe cache with a maximum number of values. The cache stops
+ * accepting new values when it is full. It is meant for values that are
+ * cheap to recreate and whose keys repeat a lot, so that the first values
+ * are the important ones.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+class BoundedCache<K, V> {
+    private final ConcurrentMap<K, V> values = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final int maximumSize;
+
+    BoundedCache(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Returns the cached value for the key.
+     *
+     * @param key the key of the value.
+     * @return the cached value or {@code null} if there is no value.
+     */
+    V get(K key) {
+        V value = values.get(key);
+        if (value == null)
+            misses.incrementAndGet();
+        else
+            hits.incrementAndGet();
+        return value;
+    }
+
+    /**
+     * Caches the value unless the cache is full.
+     *
+     * @param key the key of the value.
+     * @param value the value.
+     */
+    void put(K key, V value) {
+        //The size may be exceeded slightly by concurrent puts.
+        if (values.size() < maximumSize)
+            values.putIfAbsent(key, value);
+    }
+
+    CacheStatistics getStatistics() {
+        return new CacheStatistics(
+                hits.get(), misses.get(), values.size(), maximumSize);
+    }
+}
@@ -0,0 +1,834 @@
+package com.github.stefanbirkner.scroole;
+
+import com.github.stefanbirkner.scroole.model.ClassSpecification;
+import com.github.stefanbirkner.scroole.model.Field;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.commons.lang3.StringUtils.capitalize;
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Creates the bytecode for a {@link ClassSpecification}. The class has the
+ * same fields and methods and behaves like the class that is compiled from
+ * the code of the {@link CodeGenerator}. It allows to skip the compilation
+ * of the generated Java files. The class files have the format of Java 7.
+ * <p>A bytecode generator has no state and is thread-safe.
+ */
+public class BytecodeGenerator {
+    private static final String OBJECT = "java/lang/Object";
+    private static final String LIST = "java/util/List";
+    private static final String WEAK_HASH_MAP = "java/util/WeakHashMap";
+    private static final String WEAK_REFERENCE = "java/lang/ref/WeakReference";
+
+    /**
+     * Creates the class file for a class according to its
+     * {@link ClassSpecification}.
+     *
+     * @param specification a {@code ClassSpecification} that specifies a
+     *                      class.
+     * @return the content of the class file.
+     * @throws IllegalArgumentException if a field has an invalid type or
+     *                                  the specification has the option
+     *                                  {@code @mutable}.
+     */
+    public byte[] createBytecode(ClassSpecification specification) {
+        //the companion would be a second class file
+        if (MutableCompanion.isEnabled(specification))
+            throw new IllegalArgumentException("The option @mutable is not"
+                    + " supported by the output format BYTECODE.");
+        String className = getInternalName(specification);
+        List<ClassField> fields = mapFields(specification);
+        HashCodeCaching caching = HashCodeCaching.of(specification);
+        boolean intern = InternPool.isEnabled(specification);
+        FlyweightTable flyweights = FlyweightTable.of(specification);
+        ClassWriter writer = new ObjectClassWriter();
+        writer.visit(V1_7, ACC_PUBLIC | ACC_SUPER, className, null, OBJECT,
+                null);
+        addFields(writer, fields);
+        addHashCodeField(writer, caching);
+        addConstructor(writer, className, fields, caching);
+        addGetters(writer, className, fields);
+        addHashCode(writer, className, fields, caching);
+        addEquals(writer, className,
+                EqualsCost.sort(specification.fields, fields), caching);
+        if (intern)
+            addInterning(writer, className, fields);
+        if (flyweights != null)
+            addFlyweights(writer, className, fields, flyweights);
+        addStaticInitializer(writer, className, intern, flyweights);
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private String getInternalName(ClassSpecification specification) {
+        if (specification.packageName.isEmpty())
+            return specification.simpleName;
+        else
+            return specification.packageName.replace('.', '/') + "/"
+                    + specification.simpleName;
+    }
+
+    private List<ClassField> mapFields(ClassSpecification specification) {
+        List<ClassField> fields = new ArrayList<>();
+        for (Field field : specification.fields)
+            fields.add(new ClassField(field.name, BytecodeType.parse(
+                    field.type, specification.packageName)));
+        return fields;
+    }
+
+    private void addFields(ClassWriter writer, List<ClassField> fields) {
+        for (ClassField field : fields)
+            writer.visitField(ACC_PRIVATE | ACC_FINAL, field.name,
+                    field.type.type.getDescriptor(), field.type.signature,
+                    null).visitEnd();
+    }
+
+    private void addHashCodeField(ClassWriter writer,
+            HashCodeCaching caching) {
+        if (caching == HashCodeCaching.LAZY)
+            writer.visitField(ACC_PRIVATE, HashCodeCaching.FIELD_NAME, "I",
+                    null, null).visitEnd();
+        else if (caching == HashCodeCaching.EAGER)
+            writer.visitField(ACC_PRIVATE | ACC_FINAL,
+                    HashCodeCaching.FIELD_NAME, "I", null, null).visitEnd();
+    }
+
+    private void addConstructor(ClassWriter writer, String className,
+            List<ClassField> fields, HashCodeCaching caching) {
+        MethodVisitor method = writer.visitMethod(ACC_PUBLIC, "<init>",
+                getMethodDescriptor(fields, "V"),
+                getMethodSignature(fields, "V"), null);
+        method.visitCode();
+        method.visitVarInsn(ALOAD, 0);
+        method.visitMethodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+        int slot = 1;
+        for (ClassField field : fields) {
+            method.visitVarInsn(ALOAD, 0);
+            method.visitVarInsn(field.type.type.getOpcode(ILOAD), slot);
+            method.visitFieldInsn(PUTFIELD, className, field.name,
+                    field.type.type.getDescriptor());
+            slot += field.type.type.getSize();
+        }
+        if (caching == HashCodeCaching.EAGER) {
+            //this.cachedHashCode = computeHashCode();
+            method.visitVarInsn(ALOAD, 0);
+            method.visitVarInsn(ALOAD, 0);
+            method.visitMethodInsn(INVOKESPECIAL, className,
+                    HashCodeCaching.METHOD_NAME, "()I", false);
+            method.visitFieldInsn(PUTFIELD, className,
+                    HashCodeCaching.FIELD_NAME, "I");
+        }
+        method.visitInsn(RETURN);
+        finish(method);
+    }
+
+    //a method with a parameter for each field
+    private String getMethodDescriptor(List<ClassField> fields,
+            String returnType) {
+        StringBuilder descriptor = new StringBuilder("(");
+        for (ClassField field : fields)
+            descriptor.append(field.type.type.getDescriptor());
+        return descriptor.append(")").append(returnType).toString();
+    }
+
+    private String getMethodSignature(List<ClassField> fields,
+            String returnType) {
+        StringBuilder signature = new StringBuilder("(");
+        boolean generic = false;
+        for (ClassField field : fields) {
+            signature.append(field.type.getSignatureOrDescriptor());
+            generic |= field.type.signature != null;
+        }
+        return generic
+                ? signature.append(")").append(returnType).toString()
+                : null;
+    }
+
+    private void addGetters(ClassWriter writer, String className,
+            List<ClassField> fields) {
+        for (ClassField field : fields) {
+            Type type = field.type.type;
+            String signature = field.type.signature == null
+                    ? null : "()" + field.type.signature;
+            MethodVisitor method = writer.visitMethod(ACC_PUBLIC,
+                    "get" + capitalize(field.name),
+                    "()" + type.getDescriptor(), signature, null);
+            method.visitCode();
+            getField(method, 0, className, field);
+            method.visitInsn(type.getOpcode(IRETURN));
+            finish(method);
+        }
+    }
+
+    private void addHashCode(ClassWriter writer, String className,
+            List<ClassField> fields, HashCodeCaching caching) {
+        if (caching == HashCodeCaching.NONE)
+            addHashCodeCalculation(writer, className, fields, ACC_PUBLIC,
+                    "hashCode");
+        else {
+            addCachedHashCode(writer, className, caching);
+            addHashCodeCalculation(writer, className, fields, ACC_PRIVATE,
+                    HashCodeCaching.METHOD_NAME);
+        }
+    }
+
+    private void addCachedHashCode(ClassWriter writer, String className,
+            HashCodeCaching caching) {
+        MethodVisitor method = writer.visitMethod(ACC_PUBLIC, "hashCode",
+                "()I", null, null);
+        method.visitCode();
+        method.visitVarInsn(ALOAD, 0);
+        method.visitFieldInsn(GETFIELD, className, HashCodeCaching.FIELD_NAME,
+                "I");
+        if (caching == HashCodeCaching.LAZY) {
+            //if (result == 0) {
+            //  result = computeHashCode();
+            //  cachedHashCode = result;
+            //}
+            Label cached = new Label();
+            method.visitVarInsn(ISTORE, 1);
+            method.visitVarInsn(ILOAD, 1);
+            method.visitJumpInsn(IFNE, cached);
+            method.visitVarInsn(ALOAD, 0);
+            method.visitMethodInsn(INVOKESPECIAL, className,
+                    HashCodeCaching.METHOD_NAME, "()I", false);
+            method.visitVarInsn(ISTORE, 1);
+            method.visitVarInsn(ALOAD, 0);
+            method.visitVarInsn(ILOAD, 1);
+            method.visitFieldInsn(PUTFIELD, className,
+                    HashCodeCaching.FIELD_NAME, "I");
+            method.visitLabel(cached);
+            method.visitVarInsn(ILOAD, 1);
+        }
+        method.visitInsn(IRETURN);
+        finish(method);
+    }
+
+    //result = prime * result + <hash code of field>
+    private void addHashCodeCalculation(ClassWriter writer, String className,
+            List<ClassField> fields, int access, String name) {
+        MethodVisitor method = writer.visitMethod(access, name, "()I", null,
+                null);
+        method.visitCode();
+        method.visitIntInsn(BIPUSH, 31);
+        method.visitVarInsn(ISTORE, 1);
+        method.visitInsn(ICONST_1);
+        method.visitVarInsn(ISTORE, 2);
+        for (ClassField field : fields) {
+            method.visitVarInsn(ILOAD, 1);
+            method.visitVarInsn(ILOAD, 2);
+            method.visitInsn(IMUL);
+            pushHashCode(method, className, field);
+            method.visitInsn(IADD);
+            method.visitVarInsn(ISTORE, 2);
+        }
+        method.visitVarInsn(ILOAD, 2);
+        method.visitInsn(IRETURN);
+        finish(method);
+    }
+
+    private void pushHashCode(MethodVisitor method, String className,
+            ClassField field) {
+        Type type = field.type.type;
+        getField(method, 0, className, field);
+        if (field.type.isArray())
+            method.visitMethodInsn(INVOKESTATIC, "java/util/Arrays",
+                    "hashCode", "(" + getArraysParameter(type) + ")I", false);
+        else if (!field.type.isPrimitive())
+            pushHashCodeOfObject(method, className, field);
+        else if (type.equals(Type.BOOLEAN_TYPE))
+            pushConditional(method, IFEQ, 1231, 1237);
+        else if (type.equals(Type.DOUBLE_TYPE)) {
+            method.visitMethodInsn(INVOKESTATIC, "java/lang/Double",
+                    "doubleToLongBits", "(D)J", false);
+            pushHashCodeOfLong(method);
+        } else if (type.equals(Type.FLOAT_TYPE))
+            method.visitMethodInsn(INVOKESTATIC, "java/lang/Float",
+                    "floatToIntBits", "(F)I", false);
+        else if (type.equals(Type.LONG_TYPE))
+            pushHashCodeOfLong(method);
+        //byte, char, short and int are already an int
+    }
+
+    //field == null ? 0 : field.hashCode()
+    private void pushHashCodeOfObject(MethodVisitor method, String className,
+            ClassField field) {
+        Label notNull = new Label();
+        Label end = new Label();
+        method.visitJumpInsn(IFNONNULL, notNull);
+        method.visitInsn(ICONST_0);
+        method.visitJumpInsn(GOTO, end);
+        method.visitLabel(notNull);
+        getField(method, 0, className, field);
+        method.visitMethodInsn(INVOKEVIRTUAL, OBJECT, "hashCode", "()I",
+                false);
+        method.visitLabel(end);
+    }
+
+    //(int) (value ^ (value >>> 32))
+    private void pushHashCodeOfLong(MethodVisitor method) {
+        method.visitInsn(DUP2);
+        method.visitIntInsn(BIPUSH, 32);
+        method.visitInsn(LUSHR);
+        method.visitInsn(LXOR);
+        method.visitInsn(L2I);
+    }
+
+    private void pushConditional(MethodVisitor method, int jumpIfFalse,
+            int valueIfTrue, int valueIfFalse) {
+        Label isFalse = new Label();
+        Label end = new Label();
+        method.visitJumpInsn(jumpIfFalse, isFalse);
+        method.visitIntInsn(SIPUSH, valueIfTrue);
+        method.visitJumpInsn(GOTO, end);
+        method.visitLabel(isFalse);
+        method.visitIntInsn(SIPUSH, valueIfFalse);
+        method.visitLabel(end);
+    }
+
+    private void addEquals(ClassWriter writer, String className,
+            List<ClassField> fields, HashCodeCaching caching) {
+        MethodVisitor method = writer.visitMethod(ACC_PUBLIC, "equals",
+                "(Ljava/lang/Object;)Z", null, null);
+        method.visitCode();
+        Label notSame = new Label();
+        Label sameClass = new Label();
+        Label notEqual = new Label();
+        //if (other == this) return true;
+        method.visitVarInsn(ALOAD, 1);
+        method.visitVarInsn(ALOAD, 0);
+        method.visitJumpInsn(IF_ACMPNE, notSame);
+        returnBoolean(method, true);
+        //else if (other == null || getClass() != other.getClass())
+        //  return false;
+        method.visitLabel(notSame);
+        method.visitVarInsn(ALOAD, 1);
+        method.visitJumpInsn(IFNULL, notEqual);
+        method.visitVarInsn(ALOAD, 0);
+        method.visitMethodInsn(INVOKEVIRTUAL, OBJECT, "getClass",
+                "()Ljava/lang/Class;", false);
+        method.visitVarInsn(ALOAD, 1);
+        method.visitMethodInsn(INVOKEVIRTUAL, OBJECT, "getClass",
+                "()Ljava/lang/Class;", false);
+        method.visitJumpInsn(IF_ACMPEQ, sameClass);
+        method.visitJumpInsn(GOTO, notEqual);
+        //that = (Class) other;
+        method.visitLabel(sameClass);
+        method.visitVarInsn(ALOAD, 1);
+        method.visitTypeInsn(CHECKCAST, className);
+        method.visitVarInsn(ASTORE, 2);
+        jumpIfHashCodesDiffer(method, className, caching, notEqual);
+        for (ClassField field : fields)
+            jumpIfFieldsDiffer(method, className, field, notEqual);
+        returnBoolean(method, true);
+        method.visitLabel(notEqual);
+        returnBoolean(method, false);
+        finish(method);
+    }
+
+    //if (cachedHashCode != 0 && that.cachedHashCode != 0
+    //        && cachedHashCode != that.cachedHashCode) return false;
+    private void jumpIfHashCodesDiffer(MethodVisitor method,
+            String className, HashCodeCaching caching, Label notEqual) {
+        if (caching == HashCodeCaching.NONE)
+            return;
+        Label notCached = new Label();
+        if (caching == HashCodeCaching.LAZY) {
+            getHashCodeField(method, 0, className);
+            method.visitJumpInsn(IFEQ, notCached);
+            getHashCodeField(method, 2, className);
+            method.visitJumpInsn(IFEQ, notCached);
+        }
+        getHashCodeField(method, 0, className);
+        getHashCodeField(method, 2, className);
+        method.visitJumpInsn(IF_ICMPNE, notEqual);
+        method.visitLabel(notCached);
+    }
+
+    private void getHashCodeField(MethodVisitor method, int slotOfObject,
+            String className) {
+        method.visitVarInsn(ALOAD, slotOfObject);
+        method.visitFieldInsn(GETFIELD, className, HashCodeCaching.FIELD_NAME,
+                "I");
+    }
+
+    private void jumpIfFieldsDiffer(MethodVisitor method, String className,
+            ClassField field, Label notEqual) {
+        Type type = field.type.type;
+        if (field.type.isArray()) {
+            getFieldOfThisAndThat(method, className, field);
+            String parameter = getArraysParameter(type);
+            method.visitMethodInsn(INVOKESTATIC, "java/util/Arrays", "equals",
+                    "(" + parameter + parameter + ")Z", false);
+            method.visitJumpInsn(IFEQ, notEqual);
+        } else if (!field.type.isPrimitive())
+            jumpIfObjectsDiffer(method, className, field, notEqual);
+        else if (type.equals(Type.DOUBLE_TYPE)) {
+            getField(method, 0, className, field);
+            method.visitMethodInsn(INVOKESTATIC, "java/lang/Double",
+                    "doubleToLongBits", "(D)J", false);
+            getField(method, 2, className, field);
+            method.visitMethodInsn(INVOKESTATIC, "java/lang/Double",
+                    "doubleToLongBits", "(D)J", false);
+            method.visitInsn(LCMP);
+            method.visitJumpInsn(IFNE, notEqual);
+        } else if (type.equals(Type.FLOAT_TYPE)) {
+            getField(method, 0, className, field);
+            method.visitMethodInsn(INVOKESTATIC, "java/lang/Float",
+                    "floatToIntBits", "(F)I", false);
+            getField(method, 2, className, field);
+            method.visitMethodInsn(INVOKESTATIC, "java/lang/Float",
+                    "floatToIntBits", "(F)I", false);
+            method.visitJumpInsn(IF_ICMPNE, notEqual);
+        } else if (type.equals(Type.LONG_TYPE)) {
+            getFieldOfThisAndThat(method, className, field);
+            method.visitInsn(LCMP);
+            method.visitJumpInsn(IFNE, notEqual);
+        } else {
+            getFieldOfThisAndThat(method, className, field);
+            method.visitJumpInsn(IF_ICMPNE, notEqual);
+        }
+    }
+
+    //(field == that.field || field != null && field.equals(that.field))
+    private void jumpIfObjectsDiffer(MethodVisitor method, String className,
+            ClassField field, Label notEqual) {
+        Label same = new Label();
+        getFieldOfThisAndThat(method, className, field);
+        method.visitJumpInsn(IF_ACMPEQ, same);
+        getField(method, 0, className, field);
+        method.visitJumpInsn(IFNULL, notEqual);
+        getFieldOfThisAndThat(method, className, field);
+        method.visitMethodInsn(INVOKEVIRTUAL, OBJECT, "equals",
+                "(Ljava/lang/Object;)Z", false);
+        method.visitJumpInsn(IFEQ, notEqual);
+        method.visitLabel(same);
+    }
+
+    private void addInterning(ClassWriter writer, String className,
+            List<ClassField> fields) {
+        String type = "L" + className + ";";
+        String stripe = "L" + WEAK_HASH_MAP + "<" + type + "L"
+                + WEAK_REFERENCE + "<" + type + ">;>;";
+        String pool = "L" + LIST + "<" + stripe + ">;";
+        writer.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL,
+                InternPool.FIELD_NAME, "L" + LIST + ";", pool, null)
+                .visitEnd();
+        addCreateInternPool(writer, "()" + pool);
+        addFactory(writer, className, fields);
+        addIntern(writer, className);
+    }
+
+    //INTERN_POOL = createInternPool();
+    //FLYWEIGHTS = createFlyweights();
+    private void addStaticInitializer(ClassWriter writer, String className,
+            boolean intern, FlyweightTable flyweights) {
+        if (!intern && flyweights == null)
+            return;
+        MethodVisitor method = writer.visitMethod(ACC_STATIC, "<clinit>",
+                "()V", null, null);
+        method.visitCode();
+        if (intern)
+            initializeStaticField(method, className, InternPool.FIELD_NAME,
+                    InternPool.CREATE_METHOD_NAME, "L" + LIST + ";");
+        if (flyweights != null)
+            initializeStaticField(method, className,
+                    FlyweightTable.FIELD_NAME,
+                    FlyweightTable.CREATE_METHOD_NAME,
+                    "[L" + className + ";");
+        method.visitInsn(RETURN);
+        finish(method);
+    }
+
+    private void initializeStaticField(MethodVisitor method,
+            String className, String field, String createMethod,
+            String descriptor) {
+        method.visitMethodInsn(INVOKESTATIC, className, createMethod,
+                "()" + descriptor, false);
+        method.visitFieldInsn(PUTSTATIC, className, field, descriptor);
+    }
+
+    //List pool = new ArrayList();
+    //for (int i = 0; i < 16; ++i)
+    //  pool.add(new WeakHashMap());
+    //return pool;
+    private void addCreateInternPool(ClassWriter writer, String signature) {
+        MethodVisitor method = writer.visitMethod(ACC_PRIVATE | ACC_STATIC,
+                InternPool.CREATE_METHOD_NAME, "()L" + LIST + ";", signature,
+                null);
+        method.visitCode();
+        Label loop = new Label();
+        Label end = new Label();
+        newObject(method, "java/util/ArrayList");
+        method.visitVarInsn(ASTORE, 0);
+        method.visitInsn(ICONST_0);
+        method.visitVarInsn(ISTORE, 1);
+        method.visitLabel(loop);
+        method.visitVarInsn(ILOAD, 1);
+        method.visitIntInsn(BIPUSH, InternPool.STRIPES);
+        method.visitJumpInsn(IF_ICMPGE, end);
+        method.visitVarInsn(ALOAD, 0);
+        newObject(method, WEAK_HASH_MAP);
+        method.visitMethodInsn(INVOKEINTERFACE, LIST, "add",
+                "(Ljava/lang/Object;)Z", true);
+        method.visitInsn(POP);
+        method.visitIincInsn(1, 1);
+        method.visitJumpInsn(GOTO, loop);
+        method.visitLabel(end);
+        method.visitVarInsn(ALOAD, 0);
+        method.visitInsn(ARETURN);
+        finish(method);
+    }
+
+    //return new Class(field1, field2, ...).intern();
+    private void addFactory(ClassWriter writer, String className,
+            List<ClassField> fields) {
+        String type = "L" + className + ";";
+        MethodVisitor method = writer.visitMethod(ACC_PUBLIC | ACC_STATIC,
+                "of", getMethodDescriptor(fields, type),
+                getMethodSignature(fields, type), null);
+        method.visitCode();
+        method.visitTypeInsn(NEW, className);
+        method.visitInsn(DUP);
+        int slot = 0;
+        for (ClassField field : fields) {
+            method.visitVarInsn(field.type.type.getOpcode(ILOAD), slot);
+            slot += field.type.type.getSize();
+        }
+        method.visitMethodInsn(INVOKESPECIAL, className, "<init>",
+                getMethodDescriptor(fields, "V"), false);
+        method.visitMethodInsn(INVOKEVIRTUAL, className, "intern",
+                "()" + type, false);
+        method.visitInsn(ARETURN);
+        finish(method);
+    }
+
+    private void addIntern(ClassWriter writer, String className) {
+        MethodVisitor method = writer.visitMethod(ACC_PUBLIC, "intern",
+                "()L" + className + ";", null, null);
+        method.visitCode();
+        Label start = new Label();
+        Label end = new Label();
+        Label handler = new Label();
+        Label noReference = new Label();
+        Label dereferenced = new Label();
+        Label found = new Label();
+        method.visitTryCatchBlock(start, end, handler, null);
+        //WeakHashMap pool = INTERN_POOL.get(hashCode() & 15);
+        method.visitFieldInsn(GETSTATIC, className, InternPool.FIELD_NAME,
+                "L" + LIST + ";");
+        method.visitVarInsn(ALOAD, 0);
+        method.visitMethodInsn(INVOKEVIRTUAL, className, "hashCode", "()I",
+                false);
+        method.visitIntInsn(BIPUSH, InternPool.STRIPES - 1);
+        method.visitInsn(IAND);
+        method.visitMethodInsn(INVOKEINTERFACE, LIST, "get",
+                "(I)Ljava/lang/Object;", true);
+        method.visitTypeInsn(CHECKCAST, WEAK_HASH_MAP);
+        method.visitVarInsn(ASTORE, 1);
+        //synchronized (pool) {
+        method.visitVarInsn(ALOAD, 1);
+        method.visitInsn(DUP);
+        method.visitVarInsn(ASTORE, 2);
+        method.visitInsn(MONITORENTER);
+        method.visitLabel(start);
+        //WeakReference reference = pool.get(this);
+        method.visitVarInsn(ALOAD, 1);
+        method.visitVarInsn(ALOAD, 0);
+        method.visitMethodInsn(INVOKEVIRTUAL, WEAK_HASH_MAP, "get",
+                "(Ljava/lang/Object;)Ljava/lang/Object;", false);
+        method.visitTypeInsn(CHECKCAST, WEAK_REFERENCE);
+        method.visitVarInsn(ASTORE, 3);
+        //Class interned = reference == null ? null : reference.get();
+        method.visitVarInsn(ALOAD, 3);
+        method.visitJumpInsn(IFNULL, noReference);
+        method.visitVarInsn(ALOAD, 3);
+        method.visitMethodInsn(INVOKEVIRTUAL, WEAK_REFERENCE, "get",
+                "()Ljava/lang/Object;", false);
+        method.visitTypeInsn(CHECKCAST, className);
+        method.visitJumpInsn(GOTO, dereferenced);
+        method.visitLabel(noReference);
+        method.visitInsn(ACONST_NULL);
+        method.visitLabel(dereferenced);
+        method.visitVarInsn(ASTORE, 4);
+        //if (interned == null) {
+        //  interned = this;
+        //  pool.put(this, new WeakReference(this));
+        //}
+        method.visitVarInsn(ALOAD, 4);
+        method.visitJumpInsn(IFNONNULL, found);
+        method.visitVarInsn(ALOAD, 0);
+        method.visitVarInsn(ASTORE, 4);
+        method.visitVarInsn(ALOAD, 1);
+        method.visitVarInsn(ALOAD, 0);
+        method.visitTypeInsn(NEW, WEAK_REFERENCE);
+        method.visitInsn(DUP);
+        method.visitVarInsn(ALOAD, 0);
+        method.visitMethodInsn(INVOKESPECIAL, WEAK_REFERENCE, "<init>",
+                "(Ljava/lang/Object;)V", false);
+        method.visitMethodInsn(INVOKEVIRTUAL, WEAK_HASH_MAP, "put",
+                "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;",
+                false);
+        method.visitInsn(POP);
+        //return interned; }
+        method.visitLabel(found);
+        method.visitVarInsn(ALOAD, 2);
+        method.visitInsn(MONITOREXIT);
+        method.visitVarInsn(ALOAD, 4);
+        method.visitLabel(end);
+        method.visitInsn(ARETURN);
+        //release the monitor if an exception is thrown
+        method.visitLabel(handler);
+        method.visitVarInsn(ASTORE, 5);
+        method.visitVarInsn(ALOAD, 2);
+        method.visitInsn(MONITOREXIT);
+        method.visitVarInsn(ALOAD, 5);
+        method.visitInsn(ATHROW);
+        finish(method);
+    }
+
+    private void addFlyweights(ClassWriter writer, String className,
+            List<ClassField> fields, FlyweightTable table) {
+        writer.visitField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL,
+                FlyweightTable.FIELD_NAME, "[L" + className + ";", null, null)
+                .visitEnd();
+        addCreateFlyweights(writer, className, fields, table);
+        addFlyweightFactory(writer, className, fields, table);
+    }
+
+    //Class[] flyweights = new Class[size];
+    //for (int i = 0; i < size; ++i)
+    //  flyweights[i] = new Class((byte) (i / 16 % 16 + min), ...);
+    //return flyweights;
+    private void addCreateFlyweights(ClassWriter writer, String className,
+            List<ClassField> fields, FlyweightTable table) {
+        MethodVisitor method = writer.visitMethod(ACC_PRIVATE | ACC_STATIC,
+                FlyweightTable.CREATE_METHOD_NAME, "()[L" + className + ";",
+                null, null);
+        method.visitCode();
+        Label loop = new Label();
+        Label end = new Label();
+        pushInt(method, table.getSize());
+        method.visitTypeInsn(ANEWARRAY, className);
+        method.visitVarInsn(ASTORE, 0);
+        method.visitInsn(ICONST_0);
+        method.visitVarInsn(ISTORE, 1);
+        method.visitLabel(loop);
+        method.visitVarInsn(ILOAD, 1);
+        pushInt(method, table.getSize());
+        method.visitJumpInsn(IF_ICMPGE, end);
+        method.visitVarInsn(ALOAD, 0);
+        method.visitVarInsn(ILOAD, 1);
+        method.visitTypeInsn(NEW, className);
+        method.visitInsn(DUP);
+        for (int i = 0; i < fields.size(); ++i)
+            pushFlyweightValue(method, fields.get(i).type.type, table, i);
+        method.visitMethodInsn(INVOKESPECIAL, className, "<init>",
+                getMethodDescriptor(fields, "V"), false);
+        method.visitInsn(AASTORE);
+        method.visitIincInsn(1, 1);
+        method.visitJumpInsn(GOTO, loop);
+        method.visitLabel(end);
+        method.visitVarInsn(ALOAD, 0);
+        method.visitInsn(ARETURN);
+        finish(method);
+    }
+
+    private void pushFlyweightValue(MethodVisitor method, Type type,
+            FlyweightTable table, int fieldIndex) {
+        method.visitVarInsn(ILOAD, 1);
+        int multiplier = table.getMultiplier(fieldIndex);
+        if (multiplier != 1) {
+            pushInt(method, multiplier);
+            method.visitInsn(IDIV);
+        }
+        if (fieldIndex != 0) {
+            pushInt(method, table.getNumberOfValues());
+            method.visitInsn(IREM);
+        }
+        if (table.minimum != 0) {
+            pushInt(method, table.minimum);
+            method.visitInsn(IADD);
+        }
+        if (type.equals(Type.BYTE_TYPE))
+            method.visitInsn(I2B);
+        else if (type.equals(Type.SHORT_TYPE))
+            method.visitInsn(I2S);
+        else if (type.equals(Type.CHAR_TYPE))
+            method.visitInsn(I2C);
+        else if (type.equals(Type.LONG_TYPE))
+            method.visitInsn(I2L);
+    }
+
+    //if (field1 >= min && field1 <= max && ...)
+    //  return FLYWEIGHTS[(field1 - min) * multiplier + ...];
+    //else
+    //  return new Class(field1, ...);
+    private void addFlyweightFactory(ClassWriter writer, String className,
+            List<ClassField> fields, FlyweightTable table) {
+        String type = "L" + className + ";";
+        MethodVisitor method = writer.visitMethod(ACC_PUBLIC | ACC_STATIC,
+                FlyweightTable.FACTORY_NAME, getMethodDescriptor(fields, type),
+                getMethodSignature(fields, type), null);
+        method.visitCode();
+        Label outOfRange = new Label();
+        int slot = 0;
+        for (ClassField field : fields) {
+            jumpIfOutOfRange(method, field.type.type, slot, table,
+                    outOfRange);
+            slot += field.type.type.getSize();
+        }
+        method.visitFieldInsn(GETSTATIC, className, FlyweightTable.FIELD_NAME,
+                "[" + type);
+        slot = 0;
+        for (int i = 0; i < fields.size(); ++i) {
+            Type fieldType = fields.get(i).type.type;
+            pushFlyweightOffset(method, fieldType, slot, table, i);
+            if (i != 0)
+                method.visitInsn(IADD);
+            slot += fieldType.getSize();
+        }
+        if (fields.isEmpty())
+            method.visitInsn(ICONST_0);
+        method.visitInsn(AALOAD);
+        method.visitInsn(ARETURN);
+        method.visitLabel(outOfRange);
+        method.visitTypeInsn(NEW, className);
+        method.visitInsn(DUP);
+        slot = 0;
+        for (ClassField field : fields) {
+            method.visitVarInsn(field.type.type.getOpcode(ILOAD), slot);
+            slot += field.type.type.getSize();
+        }
+        method.visitMethodInsn(INVOKESPECIAL, className, "<init>",
+                getMethodDescriptor(fields, "V"), false);
+        method.visitInsn(ARETURN);
+        finish(method);
+    }
+
+    private void jumpIfOutOfRange(MethodVisitor method, Type type, int slot,
+            FlyweightTable table, Label outOfRange) {
+        jumpIfCompared(method, type, slot, table.minimum, IF_ICMPLT, IFLT,
+                outOfRange);
+        jumpIfCompared(method, type, slot, table.maximum, IF_ICMPGT, IFGT,
+                outOfRange);
+    }
+
+    private void jumpIfCompared(MethodVisitor method, Type type, int slot,
+            int limit, int intJump, int longJump, Label label) {
+        method.visitVarInsn(type.getOpcode(ILOAD), slot);
+        if (type.equals(Type.LONG_TYPE)) {
+            method.visitLdcInsn((long) limit);
+            method.visitInsn(LCMP);
+            method.visitJumpInsn(longJump, label);
+        } else {
+            pushInt(method, limit);
+            method.visitJumpInsn(intJump, label);
+        }
+    }
+
+    private void pushFlyweightOffset(MethodVisitor method, Type type,
+            int slot, FlyweightTable table, int fieldIndex) {
+        method.visitVarInsn(type.getOpcode(ILOAD), slot);
+        if (type.equals(Type.LONG_TYPE)) {
+            if (table.minimum != 0) {
+                method.visitLdcInsn((long) table.minimum);
+                method.visitInsn(LSUB);
+            }
+            method.visitInsn(L2I);
+        } else if (table.minimum != 0) {
+            pushInt(method, table.minimum);
+            method.visitInsn(ISUB);
+        }
+        int multiplier = table.getMultiplier(fieldIndex);
+        if (multiplier != 1) {
+            pushInt(method, multiplier);
+            method.visitInsn(IMUL);
+        }
+    }
+
+    private void pushInt(MethodVisitor method, int value) {
+        if (value >= -1 && value <= 5)
+            method.visitInsn(ICONST_0 + value);
+        else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE)
+            method.visitIntInsn(BIPUSH, value);
+        else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE)
+            method.visitIntInsn(SIPUSH, value);
+        else
+            method.visitLdcInsn(value);
+    }
+
+    private void newObject(MethodVisitor method, String className) {
+        method.visitTypeInsn(NEW, className);
+        method.visitInsn(DUP);
+        method.visitMethodInsn(INVOKESPECIAL, className, "<init>", "()V",
+                false);
+    }
+
+    //Arrays.equals and Arrays.hashCode have an overload for each primitive
+    //array and one for all other arrays.
+    private String getArraysParameter(Type type) {
+        if (type.getDimensions() == 1
+                && type.getElementType().getSort() != Type.OBJECT)
+            return type.getDescriptor();
+        else
+            return "[Ljava/lang/Object;";
+    }
+
+    private void getFieldOfThisAndThat(MethodVisitor method, String className,
+            ClassField field) {
+        getField(method, 0, className, field);
+        getField(method, 2, className, field);
+    }
+
+    private void getField(MethodVisitor method, int slotOfObject,
+            String className, ClassField field) {
+        method.visitVarInsn(ALOAD, slotOfObject);
+        method.visitFieldInsn(GETFIELD, className, field.name,
+                field.type.type.getDescriptor());
+    }
+
+    private void returnBoolean(MethodVisitor method, boolean value) {
+        method.visitInsn(value ? ICONST_1 : ICONST_0);
+        method.visitInsn(IRETURN);
+    }
+
+    private void finish(MethodVisitor method) {
+        method.visitMaxs(0, 0); //computed by the ClassWriter
+        method.visitEnd();
+    }
+
+    private static class ClassField {
+        final String name;
+        final BytecodeType type;
+
+        ClassField(String name, BytecodeType type) {
+            this.name = name;
+            this.type = type;
+        }
+    }
+
+    /**
+     * Computes the stack map frames without loading classes. The generated
+     * class and the classes of its fields are usually not available while
+     * the class is generated. The methods never merge different classes
+     * except with {@code null}, therefore a common super class is not
+     * needed.
+     */
+    private static class ObjectClassWriter extends ClassWriter {
+        ObjectClassWriter() {
+            super(COMPUTE_FRAMES);
+        }
+
+        @Override
+        protected String getCommonSuperClass(String type1, String type2) {
+            return OBJECT;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.github.stefanbirkner.scroole;
+
+import org.objectweb.asm.Type;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.lang.Character.isJavaIdentifierPart;
+import static java.lang.Character.isJavaIdentifierStart;
+import static java.lang.Character.isUpperCase;
+import static java.lang.Character.isWhitespace;
+
+/**
+ * The type of a field as it is written to a class file. It is created from
+ * the type of a Scroole field, e.g. {@code java.util.List<String>}. Simple
+ * names are resolved like javac resolves them in a Java file without
+ * imports: they are classes of the package {@code java.lang} or classes of
+ * the generated class' package.
+ */
+class BytecodeType {
+    private static final Map<String, String> PRIMITIVE_DESCRIPTORS
+            = new HashMap<String, String>() {{
+                put("boolean", "Z");
+                put("byte", "B");
+                put("short", "S");
+                put("int", "I");
+                put("long", "J");
+                put("char", "C");
+                put("float", "F");
+                put("double", "D");
+            }};
+    private static final int JAVA_LANG_CACHE_SIZE = 4096;
+    //Class.forName is expensive for classes that don't exist. The cache is
+    //shared by all threads.
+    private static final BoundedCache<String, Boolean> JAVA_LANG_CLASSES
+            = new BoundedCache<>(JAVA_LANG_CACHE_SIZE);
+
+    /**
+     * The type without type arguments.
+     */
+    final Type type;
+
+    /**
+     * The signature of the type with type arguments or {@code null} if the
+     * type has no type arguments.
+     */
+    final String signature;
+
+    private BytecodeType(Type type, String signature) {
+        this.type = type;
+        this.signature = signature;
+    }
+
+    /**
+     * Parses the type of a Scroole field.
+     *
+     * @param type        the type of the Scroole field.
+     * @param packageName the package of the generated class.
+     * @return the type for the class file.
+     * @throws IllegalArgumentException if the type is not valid.
+     */
+    static BytecodeType parse(String type, String packageName) {
+        TypeParser parser = new TypeParser(type, packageName);
+        TypeParser.Result result = parser.parseType();
+        parser.expectEnd();
+        Type asmType = Type.getType(result.descriptor);
+        boolean generic = !result.descriptor.equals(result.signature);
+        return new BytecodeType(asmType, generic ? result.signature : null);
+    }
+
+    boolean isPrimitive() {
+        return type.getSort() != Type.ARRAY && type.getSort() != Type.OBJECT;
+    }
+
+    boolean isArray() {
+        return type.getSort() == Type.ARRAY;
+    }
+
+    /**
+     * Returns the signature with type arguments if the type has type
+     * arguments and the descriptor otherwise.
+     */
+    String getSignatureOrDescriptor() {
+        return signature == null ? type.getDescriptor() : signature;
+    }
+
+    private static class TypeParser {
+        final String text;
+        final String packageName;
+        int position = 0;
+
+        TypeParser(String text, String packageName) {
+            this.text = text;
+            this.packageName = packageName;
+        }
+
+        Result parseType() {
+            String name = parseName();
+            Result result;
+            if (PRIMITIVE_DESCRIPTORS.containsKey(name)) {
+                String descriptor = PRIMITIVE_DESCRIPTORS.get(name);
+                result = new Result(descriptor, descriptor);
+            } else {
+                String internalName = toInternalName(name);
+                String descriptor = "L" + internalName + ";";
+                if (skipWhitespaceAndCheck('<'))
+                    result = new Result(descriptor, "L" + internalName
+                            + parseTypeArguments() + ";");
+                else
+                    result = new Result(descriptor, descriptor);
+            }
+            while (skipWhitespaceAndCheck('[')) {
+                ++position;
+                expect(']');
+                result = new Result(
+                        "[" + result.descriptor, "[" + result.signature);
+            }
+            return result;
+        }
+
+        private String parseTypeArguments() {
+            StringBuilder arguments = new StringBuilder("<");
+            do {
+                ++position; //skip '<' or ','
+                arguments.append(parseTypeArgument());
+            } while (skipWhitespaceAndCheck(','));
+            expect('>');
+            return arguments.append('>').toString();
+        }
+
+        private String parseTypeArgument() {
+            if (!skipWhitespaceAndCheck('?'))
+                return referenceSignature(parseType());
+            ++position;
+            if (skipWhitespaceAndCheck('>') || skipWhitespaceAndCheck(','))
+                return "*";
+            String bound = parseName();
+            if ("extends".equals(bound))
+                return "+" + referenceSignature(parseType());
+            else if ("super".equals(bound))
+                return "-" + referenceSignature(parseType());
+            else
+                throw invalid("Expected 'extends' or 'super' after '?'.");
+        }
+
+        private String referenceSignature(Result result) {
+            if (result.descriptor.length() == 1)
+                throw invalid("A type argument must not be primitive.");
+            return result.signature;
+        }
+
+        private String parseName() {
+            skipWhitespace();
+            int start = position;
+            while (position < text.length()
+                    && (isJavaIdentifierPart(text.charAt(position))
+                            || text.charAt(position) == '.'))
+                ++position;
+            String name = text.substring(start, position);
+            if (name.isEmpty() || !isJavaIdentifierStart(name.charAt(0))
+                    || name.endsWith(".") || name.contains(".."))
+                throw invalid("Expected a type name at position "
+                        + (start + 1) + ".");
+            return name;
+        }
+
+        //The first segment that starts with an upper case letter is a class.
+        //All following segments are nested classes.
+        private String toInternalName(String name) {
+            String[] segments = name.split("\\.");
+            int firstClass = 0;
+            while (firstClass < segments.length - 1
+                    && !isUpperCase(segments[firstClass].charAt(0)))
+                ++firstClass;
+            StringBuilder internalName = new StringBuilder();
+            if (firstClass == 0)
+                internalName.append(getPackagePrefix(segments[0]));
+            for (int i = 0; i < segments.length; ++i) {
+                if (i > 0)
+                    internalName.append(i <= firstClass ? '/' : '$');
+                internalName.append(segments[i]);
+            }
+            return internalName.toString();
+        }
+
+        private String getPackagePrefix(String simpleName) {
+            if (isJavaLangClass(simpleName))
+                return "java/lang/";
+            else if (packageName.isEmpty())
+                return "";
+            else
+                return packageName.replace('.', '/') + "/";
+        }
+
+        private boolean isJavaLangClass(String simpleName) {
+            Boolean javaLangClass = JAVA_LANG_CLASSES.get(simpleName);
+            if (javaLangClass == null) {
+                javaLangClass = classExists("java.lang." + simpleName);
+                JAVA_LANG_CLASSES.put(simpleName, javaLangClass);
+            }
+            return javaLangClass;
+        }
+
+        private boolean classExists(String name) {
+            try {
+                Class.forName(name, false,
+                        BytecodeType.class.getClassLoader());
+                return true;
+            } catch (ClassNotFoundException e) {
+                return false;
+            }
+        }
+
+        private boolean skipWhitespaceAndCheck(char c) {
+            skipWhitespace();
+            return position < text.length() && text.charAt(position) == c;
+        }
+
+        private void expect(char c) {
+            if (!skipWhitespaceAndCheck(c))
+                throw invalid("Expected '" + c + "' at position "
+                        + (position + 1) + ".");
+            ++position;
+        }
+
+        void expectEnd() {
+            skipWhitespace();
+            if (position != text.length())
+                throw invalid("Unexpected character at position "
+                        + (position + 1) + ".");
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length()
+                    && isWhitespace(text.charAt(position)))
+                ++position;
+        }
+
+        private IllegalArgumentException invalid(String message) {
+            return new IllegalArgumentException(
+                    "The type " + text + " is invalid. " + message);
+        }
+
+        static class Result {
+            final String descriptor;
+            final String signature;
+
+            Result(String descriptor, String signature) {
+                this.descriptor = descriptor;
+                this.signature = signature;
+            }
+        }
+    }
+}
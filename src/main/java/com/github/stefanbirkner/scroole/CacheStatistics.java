@@ -0,0 +1,50 @@
+package com.github.stefanbirkner.scroole;
+
+/**
+ * A snapshot of a cache's usage. It helps to choose the cache's size.
+ */
+public class CacheStatistics {
+    /**
+     * The number of lookups that found a cached value.
+     */
+    public final long hits;
+
+    /**
+     * The number of lookups that did not find a cached value.
+     */
+    public final long misses;
+
+    /**
+     * The number of cached values.
+     */
+    public final int size;
+
+    /**
+     * The maximum number of cached values.
+     */
+    public final int maximumSize;
+
+    /**
+     * Creates a snapshot of a cache's usage.
+     * @param hits the number of lookups that found a cached value.
+     * @param misses the number of lookups that did not find a cached value.
+     * @param size the number of cached values.
+     * @param maximumSize the maximum number of cached values.
+     */
+    public CacheStatistics(long hits, long misses, int size, int maximumSize) {
+        this.hits = hits;
+        this.misses = misses;
+        this.size = size;
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStatistics{" +
+                "hits=" + hits +
+                ", misses=" + misses +
+                ", size=" + size +
+                ", maximumSize=" + maximumSize +
+                '}';
+    }
+}
@@ -4,11 +4,19 @@ import com.github.stefanbirkner.scroole.model.ClassSpecification;
 import com.github.stefanbirkner.scroole.model.Field;
 import com.squareup.javapoet.*;
 
+import javax.annotation.processing.Filer;
 import javax.lang.model.element.Modifier;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 import static com.squareup.javapoet.ClassName.bestGuess;
 import static com.squareup.javapoet.MethodSpec.constructorBuilder;
@@ -18,9 +26,31 @@ import static org.apache.commons.lang3.StringUtils.*;
 
 /**
  * Creates the Java code for a {@link ClassSpecification}.
+ * <p>A code generator is thread-safe. Its only state is the cache of
+ * parsed field types, which can be used by multiple threads at the same
+ * time. Therefore a single generator can be shared by all threads and
+ * keeps its cache warm.
  */
 public class CodeGenerator {
-    private static final FieldMapper FIELD_MAPPER = new FieldMapper();
+    private static final int DEFAULT_TYPE_CACHE_SIZE = 4096;
+    private final FieldMapper fieldMapper;
+
+    /**
+     * Creates a code generator with a cache for up to 4096 types.
+     */
+    public CodeGenerator() {
+        this(DEFAULT_TYPE_CACHE_SIZE);
+    }
+
+    /**
+     * Creates a code generator. The generator caches the parsed field types,
+     * because most classes use the same few types.
+     *
+     * @param maximumTypeCacheSize the maximum number of cached types.
+     */
+    public CodeGenerator(int maximumTypeCacheSize) {
+        fieldMapper = new FieldMapper(maximumTypeCacheSize);
+    }
 
     /**
      * Creates Java code for a class according to its
@@ -31,22 +61,114 @@ public class CodeGenerator {
      * @return the Java code of the class.
      */
     public String createCode(ClassSpecification specification) {
+        return createJavaFile(specification).toString();
+    }
+
+    /**
+     * Writes the Java code for a class according to its
+     * {@link ClassSpecification} to an {@code Appendable}. The code is
+     * written piece by piece without creating a {@code String} of the whole
+     * code. Wrap a {@code Writer} with a {@code BufferedWriter} because the
+     * pieces are very small.
+     *
+     * @param specification a {@code ClassSpecification} that specifies a
+     *                      class.
+     * @param out           the code is appended to this {@code Appendable}.
+     * @throws IOException if the code cannot be written to {@code out}.
+     */
+    public void writeCode(ClassSpecification specification, Appendable out)
+            throws IOException {
+        createJavaFile(specification).writeTo(out);
+    }
+
+    /**
+     * Writes the Java code for a class according to its
+     * {@link ClassSpecification} to a file. The file is encoded with UTF-8.
+     * Missing parent directories are created and an existing file is
+     * overwritten.
+     *
+     * @param specification a {@code ClassSpecification} that specifies a
+     *                      class.
+     * @param file          the code is written to this file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void writeCode(ClassSpecification specification, Path file)
+            throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        try (Writer writer = Files.newBufferedWriter(
+                file, StandardCharsets.UTF_8)) {
+            writeCode(specification, writer);
+        }
+    }
+
+    /**
+     * Writes the Java code for a class according to its
+     * {@link ClassSpecification} to a new source file of an annotation
+     * processor's {@code Filer}. The compiler compiles the file in the same
+     * run.
+     *
+     * @param specification a {@code ClassSpecification} that specifies a
+     *                      class.
+     * @param filer         the {@code Filer} that creates the source file.
+     * @throws IOException if the source file cannot be created, e.g.
+     * because it already exists.
+     */
+    public void writeCode(ClassSpecification specification, Filer filer)
+            throws IOException {
+        createJavaFile(specification).writeTo(filer);
+    }
+
+    /**
+     * Returns the usage of the cache for parsed field types. The cache is
+     * shared by all classes that are created by this generator.
+     *
+     * @return the usage of the type cache.
+     */
+    public CacheStatistics getTypeCacheStatistics() {
+        return fieldMapper.cache.getStatistics();
+    }
+
+    private JavaFile createJavaFile(ClassSpecification specification) {
         TypeSpec typeSpec = getTypeSpec(specification);
-        return JavaFile.builder(specification.packageName, typeSpec)
-                .build().toString();
+        return JavaFile.builder(specification.packageName, typeSpec).build();
     }
 
     private TypeSpec getTypeSpec(ClassSpecification specification) {
         TypeSpec.Builder builder = classBuilder(specification.simpleName)
                 .addJavadoc(formatJavadoc(specification.javadoc))
                 .addModifiers(Modifier.PUBLIC);
-        List<ExtendedFieldSpec> fields = FIELD_MAPPER.map(specification.fields);
+        List<ExtendedFieldSpec> fields = fieldMapper.map(specification.fields);
         List<FieldSpec> fieldSpecs = extractFieldSpecs(fields);
+        HashCodeCaching caching = HashCodeCaching.of(specification);
+        boolean intern = InternPool.isEnabled(specification);
+        FlyweightTable flyweights = FlyweightTable.of(specification);
+        String companion = MutableCompanion.isEnabled(specification)
+                ? MutableCompanion.getSimpleName(specification) : null;
+        ClassName type = ClassName.get(
+                specification.packageName, specification.simpleName);
         addFields(builder, fieldSpecs);
-        addConstructor(builder, fieldSpecs);
+        addHashCodeField(builder, caching);
+        if (intern)
+            addInternPool(builder, type);
+        if (flyweights != null)
+            addFlyweightTable(builder, type, fieldSpecs, flyweights);
+        addConstructor(builder, fieldSpecs, caching);
+        if (intern)
+            addFactory(builder, type, fieldSpecs);
+        if (flyweights != null)
+            addFlyweightFactory(builder, type, fieldSpecs, flyweights);
         addGetters(builder, fields);
-        addHashCode(builder, fields);
-        addEquals(builder, specification.simpleName, fields);
+        addHashCode(builder, fields, caching);
+        List<ExtendedFieldSpec> sortedFields
+                = EqualsCost.sort(specification.fields, fields);
+        addEquals(builder, specification.simpleName, sortedFields, caching,
+                companion);
+        if (intern)
+            addIntern(builder, type);
+        if (companion != null)
+            builder.addType(createMutableCompanion(
+                    companion, type, fields, sortedFields));
         return builder.build();
     }
 
@@ -62,17 +184,32 @@ public class CodeGenerator {
             builder.addField(field);
     }
 
+    private void addHashCodeField(TypeSpec.Builder builder,
+            HashCodeCaching caching) {
+        if (caching == HashCodeCaching.LAZY)
+            builder.addField(FieldSpec.builder(TypeName.INT,
+                    HashCodeCaching.FIELD_NAME, Modifier.PRIVATE).build());
+        else if (caching == HashCodeCaching.EAGER)
+            builder.addField(FieldSpec.builder(TypeName.INT,
+                    HashCodeCaching.FIELD_NAME, Modifier.PRIVATE,
+                    Modifier.FINAL).build());
+    }
+
     private void addConstructor(TypeSpec.Builder builder,
-            List<FieldSpec> fields) {
-        MethodSpec constructor = createConstructor(fields);
+            List<FieldSpec> fields, HashCodeCaching caching) {
+        MethodSpec constructor = createConstructor(fields, caching);
         builder.addMethod(constructor);
     }
 
-    private MethodSpec createConstructor(List<FieldSpec> fields) {
+    private MethodSpec createConstructor(List<FieldSpec> fields,
+            HashCodeCaching caching) {
         MethodSpec.Builder constructor = constructorBuilder()
                 .addModifiers(Modifier.PUBLIC);
         for (FieldSpec field : fields)
             addParameter(constructor, field);
+        if (caching == HashCodeCaching.EAGER)
+            constructor.addStatement("this.$L = $L()",
+                    HashCodeCaching.FIELD_NAME, HashCodeCaching.METHOD_NAME);
         return constructor.build();
     }
 
@@ -81,6 +218,177 @@ public class CodeGenerator {
         builder.addStatement("this.$L = $L", field.name, field.name);
     }
 
+    //The pool is striped by the hash code of the objects so that threads
+    //seldom wait for each other.
+    private void addInternPool(TypeSpec.Builder builder, ClassName type) {
+        TypeName pool = ParameterizedTypeName.get(ClassName.get(List.class),
+                getInternPoolStripeType(type));
+        builder.addField(FieldSpec.builder(pool, InternPool.FIELD_NAME,
+                Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .initializer("$L()", InternPool.CREATE_METHOD_NAME)
+                .build());
+        builder.addMethod(methodBuilder(InternPool.CREATE_METHOD_NAME)
+                .returns(pool)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addStatement("$T pool = new $T<$T>()", pool,
+                        ArrayList.class, getInternPoolStripeType(type))
+                .beginControlFlow("for (int i = 0; i < $L; ++i)",
+                        InternPool.STRIPES)
+                .addStatement("pool.add(new $T())",
+                        getInternPoolStripeType(type))
+                .endControlFlow()
+                .addStatement("return pool")
+                .build());
+    }
+
+    private TypeName getInternPoolStripeType(ClassName type) {
+        return ParameterizedTypeName.get(ClassName.get(WeakHashMap.class),
+                type, getWeakReferenceType(type));
+    }
+
+    private TypeName getWeakReferenceType(ClassName type) {
+        return ParameterizedTypeName.get(
+                ClassName.get(WeakReference.class), type);
+    }
+
+    private void addFactory(TypeSpec.Builder builder, ClassName type,
+            List<FieldSpec> fields) {
+        MethodSpec.Builder factory = methodBuilder("of")
+                .returns(type)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+        List<String> names = new ArrayList<>();
+        for (FieldSpec field : fields) {
+            factory.addParameter(field.type, field.name);
+            names.add(field.name);
+        }
+        builder.addMethod(factory
+                .addStatement("return new $T($L).intern()", type,
+                        join(names, ", "))
+                .build());
+    }
+
+    //The pool's keys are weak references, too. Therefore the pool does
+    //not prevent the garbage collection of interned objects.
+    private void addIntern(TypeSpec.Builder builder, ClassName type) {
+        builder.addMethod(methodBuilder("intern")
+                .returns(type)
+                .addModifiers(Modifier.PUBLIC)
+                .addStatement("$T pool = $L.get(hashCode() & $L)",
+                        getInternPoolStripeType(type), InternPool.FIELD_NAME,
+                        InternPool.STRIPES - 1)
+                .beginControlFlow("synchronized (pool)")
+                .addStatement("$T reference = pool.get(this)",
+                        getWeakReferenceType(type))
+                .addStatement("$T interned = reference == null ? null"
+                        + " : reference.get()", type)
+                .beginControlFlow("if (interned == null)")
+                .addStatement("interned = this")
+                .addStatement("pool.put(this, new $T(this))",
+                        getWeakReferenceType(type))
+                .endControlFlow()
+                .addStatement("return interned")
+                .endControlFlow()
+                .build());
+    }
+
+    private void addFlyweightTable(TypeSpec.Builder builder, ClassName type,
+            List<FieldSpec> fields, FlyweightTable table) {
+        TypeName arrayType = ArrayTypeName.of(type);
+        builder.addField(FieldSpec.builder(arrayType,
+                FlyweightTable.FIELD_NAME, Modifier.PRIVATE, Modifier.STATIC,
+                Modifier.FINAL)
+                .initializer("$L()", FlyweightTable.CREATE_METHOD_NAME)
+                .build());
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < fields.size(); ++i)
+            values.add(getFlyweightValue(fields.get(i).type, table, i));
+        builder.addMethod(methodBuilder(FlyweightTable.CREATE_METHOD_NAME)
+                .returns(arrayType)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                .addStatement("$T flyweights = new $T[$L]", arrayType, type,
+                        table.getSize())
+                .beginControlFlow("for (int i = 0; i < $L; ++i)",
+                        table.getSize())
+                .addStatement("flyweights[i] = new $T($L)", type,
+                        join(values, ", "))
+                .endControlFlow()
+                .addStatement("return flyweights")
+                .build());
+    }
+
+    //The value of a field for the object at index i of the table.
+    private String getFlyweightValue(TypeName type, FlyweightTable table,
+            int fieldIndex) {
+        String value = "i";
+        int multiplier = table.getMultiplier(fieldIndex);
+        if (multiplier != 1)
+            value += " / " + multiplier;
+        if (fieldIndex != 0)
+            value += " % " + table.getNumberOfValues();
+        if (table.minimum < 0)
+            value += " - " + getNegatedMinimum(table);
+        else if (table.minimum > 0)
+            value += " + " + table.minimum;
+        if (type.equals(TypeName.LONG)
+                || type.equals(TypeName.INT) && !needsLongArithmetic(table))
+            return value;
+        else
+            return "(" + type + ") "
+                    + (value.equals("i") ? value : "(" + value + ")");
+    }
+
+    //-Integer.MIN_VALUE is not an int. Its expressions use a long literal
+    //and are cast back to int.
+    private String getNegatedMinimum(FlyweightTable table) {
+        long negatedMinimum = -(long) table.minimum;
+        return needsLongArithmetic(table)
+                ? negatedMinimum + "L" : Long.toString(negatedMinimum);
+    }
+
+    private boolean needsLongArithmetic(FlyweightTable table) {
+        return table.minimum == Integer.MIN_VALUE;
+    }
+
+    private void addFlyweightFactory(TypeSpec.Builder builder,
+            ClassName type, List<FieldSpec> fields, FlyweightTable table) {
+        MethodSpec.Builder factory = methodBuilder(FlyweightTable.FACTORY_NAME)
+                .returns(type)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC);
+        List<String> names = new ArrayList<>();
+        List<String> conditions = new ArrayList<>();
+        List<String> offsets = new ArrayList<>();
+        for (int i = 0; i < fields.size(); ++i) {
+            FieldSpec field = fields.get(i);
+            factory.addParameter(field.type, field.name);
+            names.add(field.name);
+            conditions.add(field.name + " >= " + table.minimum + " && "
+                    + field.name + " <= " + table.maximum);
+            offsets.add(getFlyweightOffset(field, table, i));
+        }
+        if (fields.isEmpty())
+            factory.addStatement("return $L[0]", FlyweightTable.FIELD_NAME);
+        else
+            factory.addStatement("if ($L)\nreturn $L[$L]",
+                    join(conditions, "\n&& "), FlyweightTable.FIELD_NAME,
+                    join(offsets, " + "))
+                    .addStatement("else\nreturn new $T($L)", type,
+                            join(names, ", "));
+        builder.addMethod(factory.build());
+    }
+
+    private String getFlyweightOffset(FieldSpec field, FlyweightTable table,
+            int fieldIndex) {
+        String offset = field.name;
+        if (table.minimum < 0)
+            offset = "(" + offset + " + " + getNegatedMinimum(table) + ")";
+        else if (table.minimum > 0)
+            offset = "(" + offset + " - " + table.minimum + ")";
+        if (field.type.equals(TypeName.LONG) || needsLongArithmetic(table))
+            offset = "(int) " + offset;
+        int multiplier = table.getMultiplier(fieldIndex);
+        return multiplier == 1 ? offset : offset + " * " + multiplier;
+    }
+
     private void addGetters(TypeSpec.Builder builder,
             List<ExtendedFieldSpec> fields) {
         for (ExtendedFieldSpec field : fields)
@@ -88,7 +396,7 @@ public class CodeGenerator {
     }
 
     private MethodSpec createGetter(ExtendedFieldSpec field) {
-        String name = "get" + capitalize(field.fieldSpec.name);
+        String name = getGetterName(field.fieldSpec.name);
         return MethodSpec.methodBuilder(name)
                 .returns(field.fieldSpec.type)
                 .addJavadoc(formatJavadoc(field.javadoc))
@@ -98,60 +406,204 @@ public class CodeGenerator {
     }
 
     private void addHashCode(TypeSpec.Builder builder,
-            List<ExtendedFieldSpec> fields) {
+            List<ExtendedFieldSpec> fields, HashCodeCaching caching) {
+        if (caching == HashCodeCaching.NONE)
+            builder.addMethod(createHashCodeCalculation(
+                    methodBuilder("hashCode")
+                            .addAnnotation(Override.class)
+                            .addModifiers(Modifier.PUBLIC),
+                    fields));
+        else {
+            builder.addMethod(createCachedHashCode(caching));
+            builder.addMethod(createHashCodeCalculation(
+                    methodBuilder(HashCodeCaching.METHOD_NAME)
+                            .addModifiers(Modifier.PRIVATE),
+                    fields));
+        }
+    }
+
+    //The lazy variant is the racy single-check idiom of String.hashCode().
+    private MethodSpec createCachedHashCode(HashCodeCaching caching) {
         MethodSpec.Builder method = methodBuilder("hashCode")
                 .returns(TypeName.INT)
                 .addAnnotation(Override.class)
-                .addModifiers(Modifier.PUBLIC)
+                .addModifiers(Modifier.PUBLIC);
+        if (caching == HashCodeCaching.LAZY)
+            method.addStatement("int result = $L", HashCodeCaching.FIELD_NAME)
+                    .beginControlFlow("if (result == 0)")
+                    .addStatement("result = $L()", HashCodeCaching.METHOD_NAME)
+                    .addStatement("$L = result", HashCodeCaching.FIELD_NAME)
+                    .endControlFlow()
+                    .addStatement("return result");
+        else
+            method.addStatement("return $L", HashCodeCaching.FIELD_NAME);
+        return method.build();
+    }
+
+    private MethodSpec createHashCodeCalculation(MethodSpec.Builder method,
+            List<ExtendedFieldSpec> fields) {
+        method.returns(TypeName.INT)
                 .addStatement("int prime = 31")
                 .addStatement("int result = 1");
         for (ExtendedFieldSpec field : fields)
             field.type.addHashCodeStatement(method, field.fieldSpec);
-        method.addStatement("return result");
-        builder.addMethod(method.build());
+        return method.addStatement("return result").build();
     }
 
     private void addEquals(TypeSpec.Builder builder, String simpleName,
-            List<ExtendedFieldSpec> fields) {
-        builder.addMethod(methodBuilder("equals")
+            List<ExtendedFieldSpec> fields, HashCodeCaching caching,
+            String companion) {
+        MethodSpec.Builder method = methodBuilder("equals")
                 .returns(TypeName.BOOLEAN)
                 .addAnnotation(Override.class)
                 .addModifiers(Modifier.PUBLIC)
                 .addParameter(objectParameter("other"))
-                .addStatement("if (other == this)\nreturn true")
-                .addStatement("else if (other == null || getClass() != other.getClass())\nreturn false")
-                .addStatement("$L that = ($L) other", simpleName, simpleName)
-                .addStatement(createCompareFieldsStatement(fields))
+                .addStatement("if (other == this)\nreturn true");
+        //the companion compares itself with objects of this class
+        if (companion != null)
+            method.addStatement("else if (other instanceof $L)\n"
+                    + "return other.equals(this)", companion);
+        method.addStatement("else if (other == null || getClass() != other.getClass())\nreturn false")
+                .addStatement("$L that = ($L) other", simpleName, simpleName);
+        addCompareHashCodesStatement(method, caching);
+        builder.addMethod(method
+                .addStatement(createCompareFieldsStatement(fields, false))
                 .build());
-        if (hasAtLeastOneObjectField(fields)) {
-            builder.addMethod(methodBuilder("equals")
-                    .returns(TypeName.BOOLEAN)
-                    .addModifiers(Modifier.PRIVATE)
-                    .addParameter(objectParameter("left"))
-                    .addParameter(objectParameter("right"))
-                    .addStatement("if (left == null)\nreturn right == null")
-                    .addStatement("else\nreturn left.equals(right)")
-                    .build());
-        }
+    }
+
+    //Objects with different hash codes are never equal. A lazily cached
+    //hash code is only compared if both objects calculated it already.
+    private void addCompareHashCodesStatement(MethodSpec.Builder method,
+            HashCodeCaching caching) {
+        String field = HashCodeCaching.FIELD_NAME;
+        if (caching == HashCodeCaching.LAZY)
+            method.addStatement("if ($L != 0 && that.$L != 0\n"
+                    + "&& $L != that.$L)\nreturn false",
+                    field, field, field, field);
+        else if (caching == HashCodeCaching.EAGER)
+            method.addStatement("if ($L != that.$L)\nreturn false",
+                    field, field);
     }
 
     private ParameterSpec objectParameter(String name) {
         return ParameterSpec.builder(TypeName.OBJECT, name).build();
     }
 
+    //The companion reads the values of the other class by its getters,
+    //because reading private fields of the enclosing class needs synthetic
+    //accessor methods.
     private String createCompareFieldsStatement(
-            List<ExtendedFieldSpec> fields) {
+            List<ExtendedFieldSpec> fields, boolean getters) {
         List<String> comparisons = new ArrayList<>();
-        for (ExtendedFieldSpec field : fields)
-            comparisons.add(field.type.getEqualsStatement(field.fieldSpec));
+        for (ExtendedFieldSpec field : fields) {
+            String name = field.fieldSpec.name;
+            String otherValue = getters
+                    ? "that." + getGetterName(name) + "()" : "that." + name;
+            comparisons.add(
+                    field.type.getEqualsStatement(field.fieldSpec, otherValue));
+        }
         return "return " + join(comparisons, "\n    && ");
     }
 
-    private boolean hasAtLeastOneObjectField(List<ExtendedFieldSpec> fields) {
+    private String getGetterName(String fieldName) {
+        return "get" + capitalize(fieldName);
+    }
+
+    private TypeSpec createMutableCompanion(String name, ClassName type,
+            List<ExtendedFieldSpec> fields,
+            List<ExtendedFieldSpec> sortedFields) {
+        TypeSpec.Builder builder = classBuilder(name)
+                .addModifiers(Modifier.PUBLIC, Modifier.STATIC,
+                        Modifier.FINAL);
+        for (ExtendedFieldSpec field : fields)
+            builder.addField(FieldSpec.builder(field.fieldSpec.type,
+                    field.fieldSpec.name, Modifier.PRIVATE).build());
+        for (ExtendedFieldSpec field : fields)
+            builder.addMethod(createGetter(field))
+                    .addMethod(createSetter(field.fieldSpec));
+        builder.addMethod(createReset(fields))
+                .addMethod(createCopyFrom(type, fields))
+                .addMethod(createToImmutable(type, fields))
+                .addMethod(createHashCodeCalculation(
+                        methodBuilder("hashCode")
+                                .addAnnotation(Override.class)
+                                .addModifiers(Modifier.PUBLIC),
+                        fields))
+                .addMethod(createCompanionEquals(name, type, sortedFields));
+        return builder.build();
+    }
+
+    private MethodSpec createSetter(FieldSpec field) {
+        return methodBuilder("set" + capitalize(field.name))
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(field.type, field.name)
+                .addStatement("this.$L = $L", field.name, field.name)
+                .build();
+    }
+
+    private MethodSpec createReset(List<ExtendedFieldSpec> fields) {
+        MethodSpec.Builder method = methodBuilder("reset")
+                .addModifiers(Modifier.PUBLIC);
         for (ExtendedFieldSpec field : fields)
-            if (field.type == FieldType.OBJECT)
-                return true;
-        return false;
+            method.addStatement("$L = $L", field.fieldSpec.name,
+                    getDefaultValue(field));
+        return method.build();
+    }
+
+    private String getDefaultValue(ExtendedFieldSpec field) {
+        if (field.type != FieldType.PRIMITIVE)
+            return "null";
+        else if (field.fieldSpec.type.equals(TypeName.BOOLEAN))
+            return "false";
+        else
+            return "0";
+    }
+
+    private MethodSpec createCopyFrom(ClassName type,
+            List<ExtendedFieldSpec> fields) {
+        MethodSpec.Builder method = methodBuilder("copyFrom")
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(type, "value");
+        for (ExtendedFieldSpec field : fields)
+            method.addStatement("this.$L = value.$L()", field.fieldSpec.name,
+                    getGetterName(field.fieldSpec.name));
+        return method.build();
+    }
+
+    private MethodSpec createToImmutable(ClassName type,
+            List<ExtendedFieldSpec> fields) {
+        List<String> names = new ArrayList<>();
+        for (ExtendedFieldSpec field : fields)
+            names.add(field.fieldSpec.name);
+        return methodBuilder("toImmutable")
+                .returns(type)
+                .addModifiers(Modifier.PUBLIC)
+                .addStatement("return new $T($L)", type, join(names, ", "))
+                .build();
+    }
+
+    //A companion is equal to another companion and to an object of the
+    //immutable class with the same values. Therefore it can look up the
+    //immutable objects in sets and maps.
+    private MethodSpec createCompanionEquals(String name, ClassName type,
+            List<ExtendedFieldSpec> fields) {
+        return methodBuilder("equals")
+                .returns(TypeName.BOOLEAN)
+                .addAnnotation(Override.class)
+                .addModifiers(Modifier.PUBLIC)
+                .addParameter(objectParameter("other"))
+                .beginControlFlow("if (other instanceof $L)", name)
+                .addStatement("$L that = ($L) other", name, name)
+                .addStatement(createCompareFieldsStatement(fields, false))
+                //JavaPoet 1.0.0 neither formats the arguments of
+                //nextControlFlow nor puts a space before its brace
+                .addCode("$<} else if (other instanceof $T) {\n$>", type)
+                .addStatement("$T that = ($T) other", type, type)
+                .addStatement(createCompareFieldsStatement(fields, true))
+                .addCode("$<} else {\n$>")
+                .addStatement("return false")
+                .endControlFlow()
+                .build();
     }
 
     private String formatJavadoc(String javadoc) {
@@ -161,9 +613,10 @@ public class CodeGenerator {
     private enum FieldType {
         ARRAY {
             @Override
-            String getEqualsStatement(FieldSpec fieldSpec) {
-                return "java.util.Arrays.equals(" + fieldSpec.name + ", that."
-                        + fieldSpec.name + ")";
+            String getEqualsStatement(FieldSpec fieldSpec,
+                    String otherValue) {
+                return "java.util.Arrays.equals(" + fieldSpec.name + ", "
+                        + otherValue + ")";
             }
 
             @Override
@@ -174,10 +627,14 @@ public class CodeGenerator {
             }
         },
         OBJECT {
+            //the identity check is cheap and also handles two nulls
             @Override
-            String getEqualsStatement(FieldSpec fieldSpec) {
-                return "equals(" + fieldSpec.name + ", that." + fieldSpec.name
-                        + ")";
+            String getEqualsStatement(FieldSpec fieldSpec,
+                    String otherValue) {
+                String name = fieldSpec.name;
+                return "(" + name + " == " + otherValue + " || " + name
+                        + " != null && " + name + ".equals(" + otherValue
+                        + "))";
             }
 
             @Override
@@ -189,19 +646,20 @@ public class CodeGenerator {
         },
         PRIMITIVE {
             @Override
-            String getEqualsStatement(FieldSpec fieldSpec) {
+            String getEqualsStatement(FieldSpec fieldSpec,
+                    String otherValue) {
                 TypeName type = fieldSpec.type;
                 String name = fieldSpec.name;
                 if (type.equals(TypeName.DOUBLE))
                     return "java.lang.Double.doubleToLongBits(" + name
-                            + ") == java.lang.Double.doubleToLongBits(that."
-                            + name + ")";
+                            + ") == java.lang.Double.doubleToLongBits("
+                            + otherValue + ")";
                 else if (type.equals(TypeName.FLOAT))
                     return "java.lang.Float.floatToIntBits(" + name
-                            + ") == java.lang.Float.floatToIntBits(that." + name
-                            + ")";
+                            + ") == java.lang.Float.floatToIntBits("
+                            + otherValue + ")";
                 else
-                    return name + " == that." + name;
+                    return name + " == " + otherValue;
             }
 
             @Override
@@ -225,7 +683,8 @@ public class CodeGenerator {
             }
         };
 
-        abstract String getEqualsStatement(FieldSpec fieldSpec);
+        abstract String getEqualsStatement(FieldSpec fieldSpec,
+                String otherValue);
 
         abstract void addHashCodeStatement(MethodSpec.Builder method,
                 FieldSpec fieldSpec);
@@ -255,12 +714,29 @@ public class CodeGenerator {
             return specs;
         }
 
+        final BoundedCache<String, ResolvedType> cache;
+
+        FieldMapper(int maximumCacheSize) {
+            cache = new BoundedCache<>(maximumCacheSize);
+        }
+
         private ExtendedFieldSpec map(Field field) {
-            FieldType type = getType(field.type);
-            TypeName typeName = getTypeName(field.type);
-            FieldSpec fieldSpec = FieldSpec.builder(typeName, field.name,
+            ResolvedType type = resolve(field.type);
+            FieldSpec fieldSpec = FieldSpec.builder(type.typeName, field.name,
                     Modifier.PRIVATE, Modifier.FINAL).build();
-            return new ExtendedFieldSpec(fieldSpec, field.javadoc, type);
+            return new ExtendedFieldSpec(fieldSpec, field.javadoc,
+                    type.fieldType);
+        }
+
+        private ResolvedType resolve(String type) {
+            ResolvedType resolvedType = cache.get(type);
+            if (resolvedType == null) {
+                FieldType fieldType = getType(type);
+                resolvedType = new ResolvedType(
+                        fieldType, getTypeName(type, fieldType));
+                cache.put(type, resolvedType);
+            }
+            return resolvedType;
         }
 
         private FieldType getType(String typeAsString) {
@@ -272,18 +748,18 @@ public class CodeGenerator {
                 return FieldType.OBJECT;
         }
 
-        private TypeName getTypeName(String type) {
-            switch (getType(type)) {
+        private TypeName getTypeName(String type, FieldType fieldType) {
+            switch (fieldType) {
                 case ARRAY:
-                    return ArrayTypeName.of(getTypeName(
-                            substringBeforeLast(type, "[]")));
+                    return ArrayTypeName.of(resolve(
+                            substringBeforeLast(type, "[]")).typeName);
                 case PRIMITIVE:
                     return PRIMITIVE_TYPES.get(type);
                 case OBJECT:
                     return getTypeNameForClass(type);
                 default:
                     throw new IllegalArgumentException("The type "
-                            + getType(type) + " is not supported.");
+                            + fieldType + " is not supported.");
             }
         }
 
@@ -304,11 +780,22 @@ public class CodeGenerator {
             List<TypeName> typeArguments = new ArrayList<>();
             for (String typeArgument : substringAfter(
                     substringBeforeLast(type, ">"), "<").split(","))
-                typeArguments.add(getTypeName(typeArgument.trim()));
+                typeArguments.add(resolve(typeArgument.trim()).typeName);
             return typeArguments.toArray(new TypeName[typeArguments.size()]);
         }
     }
 
+    //JavaPoet's TypeNames are immutable and therefore can be shared.
+    private static class ResolvedType {
+        final FieldType fieldType;
+        final TypeName typeName;
+
+        ResolvedType(FieldType fieldType, TypeName typeName) {
+            this.fieldType = fieldType;
+            this.typeName = typeName;
+        }
+    }
+
     private static class ExtendedFieldSpec {
         final FieldSpec fieldSpec;
         final String javadoc;
@@ -0,0 +1,49 @@
+package com.github.stefanbirkner.scroole;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@code ExecutorService} that runs each task immediately in the thread
+ * that submits it. Scroole uses it if only a single thread should be used.
+ */
+class CurrentThreadExecutorService extends AbstractExecutorService {
+    private volatile boolean shutdown = false;
+
+    @Override
+    public void execute(Runnable command) {
+        if (shutdown)
+            throw new RejectedExecutionException(
+                    "The executor has been shut down.");
+        command.run();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        return true;
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.stefanbirkner.scroole;
+
+import com.github.stefanbirkner.scroole.model.Field;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The cost of comparing a field in {@code equals}. The generated
+ * {@code equals} compares the cheap fields first, because it can stop at
+ * the first field that differs. Fields with the same cost are compared in
+ * the order of their declaration.
+ */
+enum EqualsCost {
+    /**
+     * {@code boolean}, {@code byte}, {@code short}, {@code char},
+     * {@code int} and {@code long} are compared by {@code ==}.
+     */
+    PRIMITIVE,
+
+    /**
+     * {@code float} and {@code double} are compared by their bits.
+     */
+    FLOATING_POINT,
+
+    /**
+     * Strings and boxed primitives are immutable and have a cheap
+     * {@code equals} method.
+     */
+    IMMUTABLE,
+
+    /**
+     * The cost of other classes' {@code equals} is unknown.
+     */
+    OBJECT,
+
+    /**
+     * Collections and maps of {@code java.util} compare all their elements.
+     */
+    COLLECTION,
+
+    /**
+     * Arrays are compared element by element by {@code Arrays.equals}.
+     */
+    ARRAY;
+
+    private static final Set<String> PRIMITIVES = new HashSet<>(Arrays.asList(
+            "boolean", "byte", "short", "char", "int", "long"));
+    private static final Set<String> IMMUTABLES = new HashSet<>(Arrays.asList(
+            "String", "Boolean", "Byte", "Short", "Character", "Integer",
+            "Long", "Float", "Double"));
+    //other classes of java.util like UUID or Date are cheap values
+    private static final Set<String> COLLECTIONS = new HashSet<>(Arrays.asList(
+            "Collection", "List", "ArrayList", "LinkedList", "Vector", "Stack",
+            "Set", "HashSet", "LinkedHashSet", "SortedSet", "NavigableSet",
+            "TreeSet", "EnumSet", "Queue", "Deque", "ArrayDeque",
+            "PriorityQueue", "Map", "HashMap", "LinkedHashMap", "SortedMap",
+            "NavigableMap", "TreeMap", "EnumMap", "IdentityHashMap",
+            "WeakHashMap", "Hashtable", "Properties"));
+
+    static EqualsCost of(String type) {
+        if (PRIMITIVES.contains(type))
+            return PRIMITIVE;
+        else if (type.equals("float") || type.equals("double"))
+            return FLOATING_POINT;
+        else if (type.endsWith("[]"))
+            return ARRAY;
+        else if (isCollection(rawType(type)))
+            return COLLECTION;
+        else if (IMMUTABLES.contains(type) || type.startsWith("java.lang.")
+                && IMMUTABLES.contains(type.substring(10)))
+            return IMMUTABLE;
+        else
+            return OBJECT;
+    }
+
+    //generic types like Optional<String> are not necessarily collections
+    private static boolean isCollection(String rawType) {
+        return rawType.startsWith("java.util.")
+                && COLLECTIONS.contains(rawType.substring(10));
+    }
+
+    private static String rawType(String type) {
+        int startOfTypeArguments = type.indexOf('<');
+        if (startOfTypeArguments < 0)
+            return type;
+        else
+            return type.substring(0, startOfTypeArguments).trim();
+    }
+
+    /**
+     * Orders the fields of a class by the cost of comparing them.
+     *
+     * @param fields        the specifications of the fields.
+     * @param mappedFields  an object for each field, e.g. the field's
+     *                      representation in a generator.
+     * @param <T>           the type of the objects.
+     * @return the objects ordered by the cost of comparing their fields.
+     */
+    static <T> List<T> sort(List<Field> fields, List<T> mappedFields) {
+        List<T> sorted = new ArrayList<>();
+        for (EqualsCost cost : values())
+            for (int i = 0; i < fields.size(); ++i)
+                if (of(fields.get(i).type) == cost)
+                    sorted.add(mappedFields.get(i));
+        return sorted;
+    }
+}
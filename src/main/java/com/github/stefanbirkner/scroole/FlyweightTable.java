@@ -0,0 +1,66 @@
+package com.github.stefanbirkner.scroole;
+
+import com.github.stefanbirkner.scroole.model.ClassSpecification;
+
+import static org.apache.commons.lang3.StringUtils.substringAfter;
+import static org.apache.commons.lang3.StringUtils.substringBefore;
+
+/**
+ * The table of preallocated objects that is generated for the option
+ * {@code @flyweight}. It has an object for each combination of the
+ * fields' values within the option's range. The objects are ordered like
+ * the digits of a number: the last field changes fastest.
+ */
+class FlyweightTable {
+    static final String FIELD_NAME = "FLYWEIGHTS";
+    static final String CREATE_METHOD_NAME = "createFlyweights";
+    static final String FACTORY_NAME = "valueOf";
+    final int minimum;
+    final int maximum;
+    final int numberOfFields;
+
+    FlyweightTable(int minimum, int maximum, int numberOfFields) {
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.numberOfFields = numberOfFields;
+    }
+
+    /**
+     * Returns the table for a class.
+     *
+     * @param specification the specification of the class.
+     * @return the table or {@code null} if the class has no option
+     * {@code @flyweight}.
+     */
+    static FlyweightTable of(ClassSpecification specification) {
+        String range = specification.getOption("flyweight");
+        if (range == null)
+            return null;
+        else
+            return new FlyweightTable(
+                    Integer.parseInt(substringBefore(range, "..")),
+                    Integer.parseInt(substringAfter(range, "..")),
+                    specification.fields.size());
+    }
+
+    int getNumberOfValues() {
+        return maximum - minimum + 1;
+    }
+
+    int getSize() {
+        return getMultiplier(-1);
+    }
+
+    /**
+     * Returns the factor of a field's offset within the table's index.
+     *
+     * @param fieldIndex the index of the field.
+     * @return the number of objects for each value of the field.
+     */
+    int getMultiplier(int fieldIndex) {
+        int multiplier = 1;
+        for (int i = fieldIndex + 1; i < numberOfFields; ++i)
+            multiplier *= getNumberOfValues();
+        return multiplier;
+    }
+}
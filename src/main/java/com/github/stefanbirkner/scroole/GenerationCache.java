@@ -0,0 +1,244 @@
+package com.github.stefanbirkner.scroole;
+
+import org.apache.commons.lang3.Validate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A directory that stores generated files by a hash of their input: the
+ * canonical name of the class, the content of the Scroole file, the output
+ * format and the version of the generator. Scroole copies a stored file
+ * instead of generating it again. Therefore a cache that is shared by
+ * multiple modules or survives a clean workspace (e.g. in
+ * {@code ~/.scroole/cache}) saves generating identical Scroole files.
+ * <p>The cache can be used by multiple threads, {@link Scroole} objects
+ * and processes at the same time. Files are added atomically. If the
+ * cache exceeds its maximum size then the files that have not been used
+ * for the longest time are deleted.
+ */
+public class GenerationCache {
+    private static final String USAGE_MARKER_SUFFIX = ".used";
+    private static final Comparator<CachedFile> LEAST_RECENTLY_USED_FIRST
+            = new Comparator<CachedFile>() {
+        @Override
+        public int compare(CachedFile left, CachedFile right) {
+            return left.lastUsed.compareTo(right.lastUsed);
+        }
+    };
+    private final Path directory;
+    private final long maximumSize;
+    private boolean hardLinks = false;
+
+    /**
+     * Creates a cache that stores its files in a directory. The directory
+     * is created when the first file is stored.
+     *
+     * @param directory   the directory of the cache.
+     * @param maximumSize the maximum size of all files in bytes.
+     * @throws NullPointerException if {@code directory} is null.
+     * @throws IllegalArgumentException if {@code maximumSize} is negative.
+     */
+    public GenerationCache(File directory, long maximumSize) {
+        Validate.notNull(directory, "The argument directory is null.");
+        Validate.isTrue(maximumSize >= 0,
+                "The maximum size must not be negative but is %d.",
+                maximumSize);
+        this.directory = directory.toPath().toAbsolutePath();
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Let the cache create hard links to its files instead of copying them.
+     * This saves disk space and time but the cached file is changed, too,
+     * if somebody edits the generated file in place. Scroole itself always
+     * replaces generated files. Hard links are only possible if the cache
+     * and the output directory are on the same file system. Otherwise the
+     * files are copied. Hard links are not used by default.
+     *
+     * @param hardLinks whether to use hard links.
+     */
+    public void setHardLinks(boolean hardLinks) {
+        this.hardLinks = hardLinks;
+    }
+
+    boolean isHardLinks() {
+        return hardLinks;
+    }
+
+    /**
+     * Calculates the key of a generated file.
+     *
+     * @param canonicalName the canonical name of the generated class.
+     * @param contentHash   the hash of the Scroole file's content.
+     * @param outputFormat  the format of the generated file.
+     * @return the key.
+     */
+    static String key(String canonicalName, String contentHash,
+            OutputFormat outputFormat) {
+        MessageDigest sha256 = Manifest.sha256();
+        String input = Manifest.GENERATOR_VERSION + "\n" + outputFormat + "\n"
+                + canonicalName + "\n" + contentHash;
+        return Manifest.toHex(sha256.digest(input.getBytes(UTF_8)));
+    }
+
+    /**
+     * Returns the cached file for a key and marks it as used.
+     *
+     * @param key the key of the file.
+     * @return the cached file or {@code null} if there is no file for this
+     * key.
+     */
+    Path get(String key) {
+        Path file = getPath(key);
+        if (!Files.isRegularFile(file))
+            return null;
+        try {
+            markAsUsed(file);
+            return file;
+        } catch (IOException e) {
+            //the file has been evicted in the meantime.
+            return null;
+        }
+    }
+
+    //The time of the last use is the modification time of a separate
+    //marker file, because a cached file may be hard linked to the
+    //generated files of other modules and these must not be touched.
+    private void markAsUsed(Path file) throws IOException {
+        Path marker = getUsageMarker(file);
+        FileTime now = FileTime.fromMillis(System.currentTimeMillis());
+        try {
+            Files.setLastModifiedTime(marker, now);
+        } catch (NoSuchFileException e) {
+            try {
+                Files.createFile(marker);
+            } catch (FileAlreadyExistsException ignored) {
+                //another thread or process marked the file at the same time
+            }
+        }
+    }
+
+    /**
+     * Stores a copy of a generated file. An existing file for the same key
+     * is replaced. The files have the same content anyway.
+     *
+     * @param key  the key of the file.
+     * @param file the generated file.
+     * @throws IOException if the file cannot be stored.
+     */
+    void put(String key, File file) throws IOException {
+        Path cachedFile = getPath(key);
+        Files.createDirectories(cachedFile.getParent());
+        Path temporaryFile = OutputFiles.createTemporaryFile(
+                cachedFile.getParent(), key);
+        try {
+            OutputFiles.copy(file.toPath(), temporaryFile);
+            OutputFiles.move(temporaryFile, cachedFile);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Deletes the least recently used files until the cache is not bigger
+     * than its maximum size.
+     *
+     * @throws IOException if the cache cannot be read.
+     */
+    void evict() throws IOException {
+        List<CachedFile> files = getCachedFiles();
+        long size = 0;
+        for (CachedFile file : files)
+            size += file.size;
+        Collections.sort(files, LEAST_RECENTLY_USED_FIRST);
+        for (int i = 0; i < files.size() && size > maximumSize; ++i) {
+            //another process may have deleted the file already
+            Files.deleteIfExists(files.get(i).path);
+            Files.deleteIfExists(getUsageMarker(files.get(i).path));
+            size -= files.get(i).size;
+        }
+    }
+
+    private List<CachedFile> getCachedFiles() throws IOException {
+        List<CachedFile> files = new ArrayList<>();
+        if (!Files.isDirectory(directory))
+            return files;
+        try (DirectoryStream<Path> subdirectories
+                     = Files.newDirectoryStream(directory)) {
+            for (Path subdirectory : subdirectories)
+                if (Files.isDirectory(subdirectory))
+                    addCachedFiles(subdirectory, files);
+        }
+        return files;
+    }
+
+    private void addCachedFiles(Path subdirectory, List<CachedFile> files)
+            throws IOException {
+        try (DirectoryStream<Path> paths
+                     = Files.newDirectoryStream(subdirectory)) {
+            for (Path path : paths)
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(
+                            path, BasicFileAttributes.class);
+                    //files of other processes that are being added start
+                    //with a dot
+                    String name = path.getFileName().toString();
+                    if (attributes.isRegularFile() && !name.startsWith(".")
+                            && !name.endsWith(USAGE_MARKER_SUFFIX))
+                        files.add(new CachedFile(path, attributes,
+                                getLastUsed(path, attributes)));
+                } catch (NoSuchFileException e) {
+                    //another process evicted the file.
+                }
+        }
+    }
+
+    //files that have never been used are as old as their creation
+    private FileTime getLastUsed(Path file, BasicFileAttributes attributes)
+            throws IOException {
+        try {
+            return Files.getLastModifiedTime(getUsageMarker(file));
+        } catch (NoSuchFileException e) {
+            return attributes.lastModifiedTime();
+        }
+    }
+
+    private Path getUsageMarker(Path file) {
+        return file.resolveSibling(file.getFileName() + USAGE_MARKER_SUFFIX);
+    }
+
+    //The files are distributed to subdirectories by the first two
+    //characters of their key, because some file systems are slow with large
+    //directories.
+    private Path getPath(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private static class CachedFile {
+        final Path path;
+        final FileTime lastUsed;
+        final long size;
+
+        CachedFile(Path path, BasicFileAttributes attributes,
+                FileTime lastUsed) {
+            this.path = path;
+            this.lastUsed = lastUsed;
+            this.size = attributes.size();
+        }
+    }
+}
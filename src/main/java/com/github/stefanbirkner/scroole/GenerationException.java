@@ -0,0 +1,45 @@
+package com.github.stefanbirkner.scroole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thrown if Scroole could not generate the Java files for some Scroole
+ * files. It provides the cause for each of these files.
+ */
+public class GenerationException extends IOException {
+    private static final long serialVersionUID = 1L;
+    private final transient Map<File, Throwable> failures;
+
+    GenerationException(Map<File, Throwable> failures) {
+        super(createMessage(failures), failures.values().iterator().next());
+        this.failures = Collections.unmodifiableMap(
+                new LinkedHashMap<>(failures));
+        for (Throwable failure : failures.values())
+            if (failure != getCause())
+                addSuppressed(failure);
+    }
+
+    private static String createMessage(Map<File, Throwable> failures) {
+        StringBuilder message = new StringBuilder(
+                "Could not generate Java files for " + failures.size()
+                        + " Scroole file(s):");
+        for (Map.Entry<File, Throwable> failure : failures.entrySet())
+            message.append("\n  ").append(failure.getKey()).append(": ")
+                    .append(failure.getValue());
+        return message.toString();
+    }
+
+    /**
+     * Returns the Scroole files that could not be processed together with
+     * the cause of the failure.
+     *
+     * @return the cause of the failure for each failed Scroole file.
+     */
+    public Map<File, Throwable> getFailures() {
+        return failures;
+    }
+}
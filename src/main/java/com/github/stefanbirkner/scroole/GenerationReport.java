@@ -0,0 +1,346 @@
+package com.github.stefanbirkner.scroole;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Statistics of a single run of {@link Scroole#generateFiles()}. The times
+ * of the phases are summed over all threads and therefore their sum may be
+ * greater than the {@link #totalTime total time} if Scroole uses multiple
+ * threads.
+ * <ul>
+ * <li>scan: searching the Scroole files and checking whether they changed
+ * since the last run.</li>
+ * <li>parse: reading and parsing the Scroole files.</li>
+ * <li>generate: creating the Java code and streaming it to a temporary
+ * file.</li>
+ * <li>write: comparing the temporary file with the existing Java file and
+ * replacing it.</li>
+ * </ul>
+ * All times are in nanoseconds.
+ */
+public class GenerationReport {
+    static final int NUMBER_OF_SLOWEST_SPECIFICATIONS = 5;
+
+    /**
+     * The wall-clock time of the whole run in nanoseconds.
+     */
+    public final long totalTime;
+
+    /**
+     * The time of the scan phase in nanoseconds.
+     */
+    public final long scanTime;
+
+    /**
+     * The time of the parse phase in nanoseconds.
+     */
+    public final long parseTime;
+
+    /**
+     * The time of the generate phase in nanoseconds.
+     */
+    public final long generateTime;
+
+    /**
+     * The time of the write phase in nanoseconds.
+     */
+    public final long writeTime;
+
+    /**
+     * The number of Scroole files that have been found.
+     */
+    public final int scrooleFiles;
+
+    /**
+     * The number of Java files that have been written.
+     */
+    public final int regeneratedFiles;
+
+    /**
+     * The number of Java files that have been generated again but are
+     * unchanged and therefore have not been written.
+     */
+    public final int unchangedFiles;
+
+    /**
+     * The number of Scroole files that did not change since the last run.
+     */
+    public final int skippedFiles;
+
+    /**
+     * The number of regenerated or unchanged files that have been copied
+     * from the {@link GenerationCache} instead of being generated.
+     */
+    public final int cachedFiles;
+    public final int failedFiles;
+    public final int deletedFiles;
+    public final long bytesWritten;
+
+    /**
+     * The maximum number of Scroole files that have been found but whose
+     * files had not been written yet at the same time. Scroole limits this
+     * number (see {@link Scroole#setMaximumPendingFiles(int)}).
+     */
+    public final int maximumPendingFiles;
+
+    /**
+     * The bytes that have been allocated by the threads that generated the
+     * Java files or -1 if the JVM does not measure allocations.
+     */
+    public final long allocatedBytes;
+
+    /**
+     * The Scroole files that took most time, slowest first.
+     */
+    public final List<SpecificationTime> slowestSpecifications;
+
+    GenerationReport(Recorder recorder) {
+        this.totalTime = recorder.totalTime;
+        this.scanTime = recorder.scanTime;
+        this.parseTime = recorder.parseTime;
+        this.generateTime = recorder.generateTime;
+        this.writeTime = recorder.writeTime;
+        this.scrooleFiles = recorder.scrooleFiles;
+        this.regeneratedFiles = recorder.regeneratedFiles;
+        this.unchangedFiles = recorder.unchangedFiles;
+        this.skippedFiles = recorder.skippedFiles;
+        this.cachedFiles = recorder.cachedFiles;
+        this.failedFiles = recorder.failedFiles;
+        this.deletedFiles = recorder.deletedFiles;
+        this.bytesWritten = recorder.bytesWritten;
+        this.maximumPendingFiles = recorder.maximumPendingFiles;
+        this.allocatedBytes = recorder.allocatedBytes;
+        this.slowestSpecifications = unmodifiableList(
+                new ArrayList<>(recorder.slowestSpecifications));
+    }
+
+    /**
+     * Returns a summary of the report that can be logged.
+     *
+     * @return the lines of the summary.
+     */
+    public List<String> getSummary() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(
+                "Processed %d Scroole file(s) in %d ms: %d regenerated,"
+                        + " %d unchanged, %d skipped, %d failed, %d deleted.",
+                scrooleFiles, millis(totalTime), regeneratedFiles,
+                unchangedFiles, skippedFiles, failedFiles, deletedFiles));
+        lines.add(String.format(
+                "Phases: scan %d ms, parse %d ms, generate %d ms, write %d ms.",
+                millis(scanTime), millis(parseTime), millis(generateTime),
+                millis(writeTime)));
+        if (cachedFiles > 0)
+            lines.add(String.format("Copied %d file(s) from the cache.",
+                    cachedFiles));
+        lines.add(String.format("Wrote %d bytes%s.", bytesWritten,
+                allocatedBytes == -1
+                        ? "" : ", allocated " + allocatedBytes + " bytes"));
+        for (SpecificationTime specification : slowestSpecifications)
+            lines.add(String.format("Slow Scroole file: %s (%d ms)",
+                    specification.scrooleFile, millis(specification.time)));
+        return lines;
+    }
+
+    /**
+     * Returns the report as JSON object. Times are in nanoseconds.
+     *
+     * @return the report as JSON object.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n")
+                .append("  \"totalTime\": ").append(totalTime).append(",\n")
+                .append("  \"scanTime\": ").append(scanTime).append(",\n")
+                .append("  \"parseTime\": ").append(parseTime).append(",\n")
+                .append("  \"generateTime\": ").append(generateTime)
+                .append(",\n")
+                .append("  \"writeTime\": ").append(writeTime).append(",\n")
+                .append("  \"scrooleFiles\": ").append(scrooleFiles)
+                .append(",\n")
+                .append("  \"regeneratedFiles\": ").append(regeneratedFiles)
+                .append(",\n")
+                .append("  \"unchangedFiles\": ").append(unchangedFiles)
+                .append(",\n")
+                .append("  \"skippedFiles\": ").append(skippedFiles)
+                .append(",\n")
+                .append("  \"cachedFiles\": ").append(cachedFiles)
+                .append(",\n")
+                .append("  \"failedFiles\": ").append(failedFiles)
+                .append(",\n")
+                .append("  \"deletedFiles\": ").append(deletedFiles)
+                .append(",\n")
+                .append("  \"bytesWritten\": ").append(bytesWritten)
+                .append(",\n")
+                .append("  \"maximumPendingFiles\": ")
+                .append(maximumPendingFiles).append(",\n")
+                .append("  \"allocatedBytes\": ").append(allocatedBytes)
+                .append(",\n")
+                .append("  \"slowestSpecifications\": [");
+        for (int i = 0; i < slowestSpecifications.size(); ++i) {
+            SpecificationTime specification = slowestSpecifications.get(i);
+            json.append(i == 0 ? "\n" : ",\n")
+                    .append("    {\"scrooleFile\": ");
+            appendJsonString(json, specification.scrooleFile);
+            json.append(", \"time\": ").append(specification.time).append("}");
+        }
+        return json.append(slowestSpecifications.isEmpty() ? "]\n" : "\n  ]\n")
+                .append("}\n").toString();
+    }
+
+    private static void appendJsonString(StringBuilder json, String text) {
+        json.append('"');
+        for (char c : text.toCharArray())
+            if (c == '"' || c == '\\')
+                json.append('\\').append(c);
+            else if (c < ' ')
+                json.append(String.format("\\u%04x", (int) c));
+            else
+                json.append(c);
+        json.append('"');
+    }
+
+    private static long millis(long nanos) {
+        return NANOSECONDS.toMillis(nanos);
+    }
+
+    @Override
+    public String toString() {
+        return "GenerationReport{" +
+                "totalTime=" + totalTime +
+                ", scanTime=" + scanTime +
+                ", parseTime=" + parseTime +
+                ", generateTime=" + generateTime +
+                ", writeTime=" + writeTime +
+                ", scrooleFiles=" + scrooleFiles +
+                ", regeneratedFiles=" + regeneratedFiles +
+                ", unchangedFiles=" + unchangedFiles +
+                ", skippedFiles=" + skippedFiles +
+                ", cachedFiles=" + cachedFiles +
+                ", failedFiles=" + failedFiles +
+                ", deletedFiles=" + deletedFiles +
+                ", bytesWritten=" + bytesWritten +
+                ", maximumPendingFiles=" + maximumPendingFiles +
+                ", allocatedBytes=" + allocatedBytes +
+                ", slowestSpecifications=" + slowestSpecifications +
+                '}';
+    }
+
+    /**
+     * The time that Scroole needed for a single Scroole file.
+     */
+    public static class SpecificationTime {
+        /**
+         * The path of the Scroole file relative to the directory with the
+         * Scroole files.
+         */
+        public final String scrooleFile;
+
+        /**
+         * The time in nanoseconds.
+         */
+        public final long time;
+
+        SpecificationTime(String scrooleFile, long time) {
+            this.scrooleFile = scrooleFile;
+            this.time = time;
+        }
+
+        @Override
+        public String toString() {
+            return scrooleFile + " (" + time + " ns)";
+        }
+    }
+
+    /**
+     * Collects the statistics while Scroole generates Java files. It is not
+     * thread-safe.
+     */
+    static class Recorder {
+        private static final Comparator<SpecificationTime> SLOWEST_FIRST
+                = new Comparator<SpecificationTime>() {
+            @Override
+            public int compare(SpecificationTime left,
+                    SpecificationTime right) {
+                return Long.compare(right.time, left.time);
+            }
+        };
+        long totalTime;
+        long scanTime;
+        long parseTime;
+        long generateTime;
+        long writeTime;
+        int scrooleFiles;
+        int regeneratedFiles;
+        int unchangedFiles;
+        int skippedFiles;
+        int cachedFiles;
+        int failedFiles;
+        int deletedFiles;
+        long bytesWritten;
+        int maximumPendingFiles;
+        long allocatedBytes;
+        final List<SpecificationTime> slowestSpecifications = new ArrayList<>();
+
+        Recorder() {
+            this(true);
+        }
+
+        Recorder(boolean measureAllocations) {
+            allocatedBytes = measureAllocations
+                    && Allocations.isMeasured() ? 0 : -1;
+        }
+
+        void addSpecificationTime(String scrooleFile, long time) {
+            slowestSpecifications.add(new SpecificationTime(scrooleFile, time));
+            Collections.sort(slowestSpecifications, SLOWEST_FIRST);
+            if (slowestSpecifications.size() > NUMBER_OF_SLOWEST_SPECIFICATIONS)
+                slowestSpecifications.remove(NUMBER_OF_SLOWEST_SPECIFICATIONS);
+        }
+
+        void addAllocatedBytes(long bytes) {
+            if (bytes == -1)
+                allocatedBytes = -1;
+            else if (allocatedBytes != -1)
+                allocatedBytes += bytes;
+        }
+
+        GenerationReport toReport() {
+            return new GenerationReport(this);
+        }
+
+        /**
+         * Returns the bytes that have been allocated by the current thread
+         * so far or -1 if the JVM does not measure allocations.
+         */
+        static long allocatedBytesOfCurrentThread() {
+            if (Allocations.isMeasured())
+                return ((com.sun.management.ThreadMXBean)
+                        Allocations.THREAD_MX_BEAN).getThreadAllocatedBytes(
+                                Thread.currentThread().getId());
+            else
+                return -1;
+        }
+    }
+
+    //The management classes are loaded when allocations are measured for
+    //the first time, because loading them takes tens of milliseconds.
+    private static class Allocations {
+        static final ThreadMXBean THREAD_MX_BEAN
+                = ManagementFactory.getThreadMXBean();
+
+        static boolean isMeasured() {
+            return THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN)
+                            .isThreadAllocatedMemoryEnabled();
+        }
+    }
+}
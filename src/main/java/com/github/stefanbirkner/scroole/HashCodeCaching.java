@@ -0,0 +1,40 @@
+package com.github.stefanbirkner.scroole;
+
+import com.github.stefanbirkner.scroole.model.ClassSpecification;
+
+import java.util.Locale;
+
+/**
+ * How a generated class caches its hash code. It is configured by the
+ * option {@code @hashCode} of the Scroole file.
+ */
+enum HashCodeCaching {
+    /**
+     * The hash code is calculated by every call of {@code hashCode()}.
+     */
+    NONE,
+
+    /**
+     * The hash code is calculated by the first call of {@code hashCode()}
+     * and stored in a non-volatile field. Threads may calculate it more
+     * than once, but they always calculate the same value. A hash code of
+     * zero is never cached.
+     */
+    LAZY,
+
+    /**
+     * The hash code is calculated by the constructor.
+     */
+    EAGER;
+
+    static final String FIELD_NAME = "cachedHashCode";
+    static final String METHOD_NAME = "computeHashCode";
+
+    static HashCodeCaching of(ClassSpecification specification) {
+        String option = specification.getOption("hashCode");
+        if (option == null)
+            return NONE;
+        else
+            return valueOf(option.toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.stefanbirkner.scroole;
+
+import com.github.stefanbirkner.scroole.model.ClassSpecification;
+
+/**
+ * The names of the members that are generated for the option
+ * {@code @intern}. The generated class stores its interned objects in a
+ * static list of {@code WeakHashMap}s. Each map holds the objects of some
+ * hash codes and is locked independently.
+ */
+class InternPool {
+    static final String FIELD_NAME = "INTERN_POOL";
+    static final String CREATE_METHOD_NAME = "createInternPool";
+    //like the default concurrency level of a ConcurrentHashMap
+    static final int STRIPES = 16;
+
+    static boolean isEnabled(ClassSpecification specification) {
+        return specification.getOption("intern") != null;
+    }
+}
@@ -0,0 +1,194 @@
+package com.github.stefanbirkner.scroole;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.apache.commons.io.FileUtils.readLines;
+import static org.apache.commons.io.FileUtils.writeLines;
+
+/**
+ * Remembers which Java file has been generated for which Scroole file. The
+ * manifest is stored in the output directory and allows Scroole to skip
+ * Scroole files that did not change since the last run.
+ */
+class Manifest {
+    static final String FILENAME = ".scroole-manifest";
+    static final String GENERATOR_VERSION = readGeneratorVersion();
+    private static final String ENCODING = "UTF-8";
+    private static final String SEPARATOR = "\t";
+    private static final String VERSION_PREFIX = "version" + SEPARATOR;
+    private final String generatorVersion;
+    private final Map<String, Entry> entries;
+
+    /**
+     * Creates an empty manifest for the current generator version.
+     */
+    Manifest() {
+        this(GENERATOR_VERSION, new TreeMap<String, Entry>());
+    }
+
+    private Manifest(String generatorVersion, Map<String, Entry> entries) {
+        this.generatorVersion = generatorVersion;
+        this.entries = entries;
+    }
+
+    /**
+     * Reads the manifest of an output directory. Returns an empty manifest
+     * if the directory has no manifest.
+     *
+     * @param outputDirectory the directory with the generated Java files.
+     * @return the manifest that has been stored in the directory.
+     * @throws IOException if the manifest cannot be read.
+     */
+    static Manifest readFrom(File outputDirectory) throws IOException {
+        File file = new File(outputDirectory, FILENAME);
+        if (file.isFile())
+            return parse(readLines(file, ENCODING));
+        else
+            return new Manifest(null, new HashMap<String, Entry>());
+    }
+
+    private static Manifest parse(List<String> lines) {
+        String version = null;
+        Map<String, Entry> entries = new HashMap<>();
+        for (String line : lines)
+            if (line.startsWith(VERSION_PREFIX))
+                version = line.substring(VERSION_PREFIX.length());
+            else
+                addEntryForLine(entries, line);
+        return new Manifest(version, entries);
+    }
+
+    private static void addEntryForLine(Map<String, Entry> entries,
+            String line) {
+        String[] parts = line.split(SEPARATOR);
+        //silently skip broken lines. The Scroole file is regenerated then.
+        if (parts.length == 3)
+            entries.put(parts[0], new Entry(parts[1], parts[2]));
+    }
+
+    /**
+     * Writes the manifest to an output directory.
+     *
+     * @param outputDirectory the directory with the generated Java files.
+     * @throws IOException if the manifest cannot be written.
+     */
+    void writeTo(File outputDirectory) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(VERSION_PREFIX + generatorVersion);
+        for (Map.Entry<String, Entry> entry : entries.entrySet())
+            lines.add(entry.getKey() + SEPARATOR + entry.getValue().hash
+                    + SEPARATOR + entry.getValue().javaFile);
+        writeLines(new File(outputDirectory, FILENAME), ENCODING, lines, "\n");
+    }
+
+    /**
+     * Checks whether the manifest has the same entry for the Scroole file
+     * and has been written by the current version of the generator.
+     */
+    boolean isUpToDate(String scrooleFile, Entry entry) {
+        return GENERATOR_VERSION.equals(generatorVersion)
+                && entry.equals(entries.get(scrooleFile));
+    }
+
+    void put(String scrooleFile, Entry entry) {
+        entries.put(scrooleFile, entry);
+    }
+
+    Entry get(String scrooleFile) {
+        return entries.get(scrooleFile);
+    }
+
+    Set<String> getScrooleFiles() {
+        return entries.keySet();
+    }
+
+    /**
+     * Calculates the fingerprint of a Scroole file's content. The file is
+     * read in small chunks.
+     *
+     * @param file the Scroole file.
+     * @return the SHA-256 hash of the content as hex string.
+     * @throws IOException if the file cannot be read.
+     */
+    static String hash(File file) throws IOException {
+        MessageDigest sha256 = sha256();
+        byte[] buffer = new byte[8192];
+        try (InputStream is = new FileInputStream(file)) {
+            int length;
+            while ((length = is.read(buffer)) != -1)
+                sha256.update(buffer, 0, length);
+        }
+        return toHex(sha256.digest());
+    }
+
+    static String toHex(byte[] digest) {
+        StringBuilder sb = new StringBuilder(2 * digest.length);
+        for (byte b : digest) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+            sb.append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(
+                    "The JVM does not support SHA-256.", e);
+        }
+    }
+
+    private static String readGeneratorVersion() {
+        Properties properties = new Properties();
+        try (InputStream is = Manifest.class.getResourceAsStream(
+                "scroole.properties")) {
+            if (is != null)
+                properties.load(is);
+        } catch (IOException e) {
+            //use the default version.
+        }
+        return properties.getProperty("version", "unknown");
+    }
+
+    /**
+     * The fingerprint of a Scroole file together with the path of the Java
+     * file that has been generated for it.
+     */
+    static class Entry {
+        final String hash;
+        final String javaFile;
+
+        Entry(String hash, String javaFile) {
+            this.hash = hash;
+            this.javaFile = javaFile;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Entry entry = (Entry) o;
+
+            return hash.equals(entry.hash) && javaFile.equals(entry.javaFile);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * hash.hashCode() + javaFile.hashCode();
+        }
+    }
+}
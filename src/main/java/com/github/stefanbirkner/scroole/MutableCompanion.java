@@ -0,0 +1,20 @@
+package com.github.stefanbirkner.scroole;
+
+import com.github.stefanbirkner.scroole.model.ClassSpecification;
+
+/**
+ * The mutable companion that is generated for the option {@code @mutable}.
+ * It is a nested class {@code MutableXxx} of the generated class
+ * {@code Xxx}. Therefore the generated code is still a single Java file.
+ */
+class MutableCompanion {
+    static final String PREFIX = "Mutable";
+
+    static boolean isEnabled(ClassSpecification specification) {
+        return specification.getOption("mutable") != null;
+    }
+
+    static String getSimpleName(ClassSpecification specification) {
+        return PREFIX + specification.simpleName;
+    }
+}
@@ -0,0 +1,199 @@
+package com.github.stefanbirkner.scroole;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Writes files only if their content changed. Unchanged files keep their
+ * modification time and therefore tools like the Maven Compiler Plugin don't
+ * consider them stale.
+ */
+class OutputFiles {
+    private static final int BUFFER_SIZE = 8192;
+    private static final Random RANDOM = new Random();
+
+    private OutputFiles() {
+    }
+
+    /**
+     * Write the content to a file unless the file already has this content.
+     * The content is streamed to a temporary file next to the file with
+     * UTF-8 encoding. The temporary file replaces the file atomically, so
+     * that other processes never see a partially written file. It is deleted
+     * if the file already has the same content.
+     *
+     * @param file    the file to write.
+     * @param content the new content of the file.
+     * @return {@code true} if the file has been written, {@code false} if it
+     * already had this content.
+     * @throws IOException if the file cannot be read or written.
+     */
+    static boolean writeIfChanged(File file, Content content)
+            throws IOException {
+        Path path = file.toPath();
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryFile = createTemporaryFile(
+                directory, path.getFileName().toString());
+        try {
+            write(temporaryFile, content);
+            if (haveSameContent(temporaryFile, path))
+                return false;
+            move(temporaryFile, path);
+            return true;
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Write the content to a file unless the file already has this content.
+     * The file is replaced atomically like the file of
+     * {@link #writeIfChanged(File, Content)}.
+     *
+     * @param file    the file to write.
+     * @param content the new content of the file.
+     * @return {@code true} if the file has been written, {@code false} if it
+     * already had this content.
+     * @throws IOException if the file cannot be read or written.
+     */
+    static boolean writeIfChanged(File file, byte[] content)
+            throws IOException {
+        //comparing the length first avoids reading files that changed anyway
+        if (file.isFile() && file.length() == content.length
+                && Arrays.equals(Files.readAllBytes(file.toPath()), content))
+            return false;
+        Path path = file.toPath();
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryFile = createTemporaryFile(
+                directory, path.getFileName().toString());
+        try {
+            Files.write(temporaryFile, content);
+            move(temporaryFile, path);
+            return true;
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    /**
+     * Copy a file unless the target already has the same content. The
+     * target is replaced atomically like the file of
+     * {@link #writeIfChanged(File, Content)}.
+     *
+     * @param source   the file that is copied.
+     * @param file     the target.
+     * @param hardLink create a hard link instead of a copy if possible.
+     * @return {@code true} if the target has been written, {@code false} if
+     * it already had this content.
+     * @throws IOException if the source cannot be read or the target cannot
+     * be written.
+     */
+    static boolean copyIfChanged(Path source, File file, boolean hardLink)
+            throws IOException {
+        Path path = file.toPath();
+        if (haveSameContent(source, path))
+            return false;
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporaryFile = createTemporaryFile(
+                directory, path.getFileName().toString());
+        try {
+            if (!hardLink || !createLink(temporaryFile, source))
+                copy(source, temporaryFile);
+            move(temporaryFile, path);
+            return true;
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    //The link replaces the empty temporary file.
+    private static boolean createLink(Path link, Path existing)
+            throws IOException {
+        Files.delete(link);
+        try {
+            Files.createLink(link, existing);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            //e.g. the files are on different file systems
+            return false;
+        }
+    }
+
+    /**
+     * Creates an empty file whose name starts with a dot. Unlike
+     * {@code Files.createTempFile} it creates the file with the default
+     * permissions, because it will replace a file that is read by other
+     * users, too.
+     */
+    static Path createTemporaryFile(Path directory, String name)
+            throws IOException {
+        while (true)
+            try {
+                return Files.createFile(directory.resolve("." + name + "."
+                        + Long.toHexString(RANDOM.nextLong()) + ".tmp"));
+            } catch (FileAlreadyExistsException e) {
+                //try another name
+            }
+    }
+
+    static void copy(Path source, Path target) throws IOException {
+        Files.copy(source, target, REPLACE_EXISTING);
+    }
+
+    private static void write(Path file, Content content) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, UTF_8)) {
+            content.writeTo(writer);
+        }
+    }
+
+    private static boolean haveSameContent(Path left, Path right)
+            throws IOException {
+        //comparing the length first avoids reading files that changed anyway
+        if (!Files.isRegularFile(right) || Files.size(left) != Files.size(right))
+            return false;
+        try (InputStream leftStream = newInputStream(left);
+             InputStream rightStream = newInputStream(right)) {
+            int b;
+            while ((b = leftStream.read()) != -1)
+                if (b != rightStream.read())
+                    return false;
+            return rightStream.read() == -1;
+        }
+    }
+
+    private static InputStream newInputStream(Path file) throws IOException {
+        return new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+    }
+
+    static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, ATOMIC_MOVE, REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * The content of a file that is written by
+     * {@link #writeIfChanged(File, Content)}.
+     */
+    interface Content {
+        void writeTo(Writer writer) throws IOException;
+    }
+}
@@ -0,0 +1,23 @@
+package com.github.stefanbirkner.scroole;
+
+/**
+ * The kind of files that {@link Scroole} writes for the Scroole files.
+ */
+public enum OutputFormat {
+    /**
+     * Java source files that are created by the {@link CodeGenerator}.
+     */
+    SOURCE(".java"),
+
+    /**
+     * Class files that are created by the {@link BytecodeGenerator}. They
+     * don't have to be compiled.
+     */
+    BYTECODE(".class");
+
+    final String fileSuffix;
+
+    OutputFormat(String fileSuffix) {
+        this.fileSuffix = fileSuffix;
+    }
+}
@@ -5,26 +5,62 @@ import com.github.stefanbirkner.scroole.model.Parser;
 import org.apache.commons.lang3.Validate;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
-import static org.apache.commons.io.FileUtils.listFiles;
-import static org.apache.commons.io.FileUtils.readFileToString;
-import static org.apache.commons.io.FileUtils.write;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
 import static org.apache.commons.lang3.StringUtils.substringAfter;
 import static org.apache.commons.lang3.StringUtils.substringBeforeLast;
 
 /**
  * Generates a Java source file for each Scroole file in a directory.
+ * <p>A {@code Scroole} object must not be used by multiple threads at the
+ * same time. Different {@code Scroole} objects can generate files
+ * concurrently (e.g. for the modules of a parallel Maven build) as long as
+ * they have different output directories. They share the generators, which
+ * are thread-safe, and may share a {@link GenerationCache}.
  */
 public class Scroole {
+    //The generators and the parser are thread-safe and shared by all
+    //instances, so that their caches stay warm across modules.
     private static final CodeGenerator CODE_GENERATOR = new CodeGenerator();
+    private static final BytecodeGenerator BYTECODE_GENERATOR
+            = new BytecodeGenerator();
     private static final Parser PARSER = new Parser();
     private static final String SCROOLE_FILE_SUFFIX = "scroole";
-    private static final boolean RECURSIVE = true;
+    private static final int PENDING_FILES_PER_THREAD = 4;
+    static final List<String> DEFAULT_INCLUDES
+            = singletonList("**/*." + SCROOLE_FILE_SUFFIX);
     private File directoryWithScrooleFiles;
     private File outputDirectory;
+    private File manifestDirectory;
+    private OutputFormat outputFormat = OutputFormat.SOURCE;
+    private int threads = 1;
+    private int maximumPendingFiles = -1;
+    private boolean measureAllocations = true;
+    private List<String> includes = DEFAULT_INCLUDES;
+    private List<String> excludes = emptyList();
+    private GenerationCache cache;
+    private GenerationReport report;
 
     /**
      * Create a Scroole code generator.
@@ -41,6 +77,7 @@ public class Scroole {
         this.directoryWithScrooleFiles = validDirectoryWithScrooleFiles(
                 directoryWithScrooleFiles);
         this.outputDirectory = isValidOutputDirectory(outputDirectory);
+        this.manifestDirectory = this.outputDirectory;
     }
 
     private File validDirectoryWithScrooleFiles(File directory)
@@ -72,38 +109,581 @@ public class Scroole {
                     + " is not a directory.");
     }
 
+    File getDirectoryWithScrooleFiles() {
+        return directoryWithScrooleFiles;
+    }
+
+    File getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    /**
+     * Set the kind of files that are written to the output directory. By
+     * default Scroole writes Java source files.
+     *
+     * @param outputFormat the kind of files.
+     * @throws NullPointerException if {@code outputFormat} is null.
+     */
+    public void setOutputFormat(OutputFormat outputFormat) {
+        Validate.notNull(outputFormat, "The argument outputFormat is null.");
+        this.outputFormat = outputFormat;
+    }
+
+    /**
+     * Set the directory of the manifest that remembers the generated files.
+     * By default the manifest is stored in the output directory. Use
+     * another directory if the output directory is packaged, e.g. for
+     * class files.
+     *
+     * @param manifestDirectory the directory of the manifest.
+     * @throws NullPointerException if {@code manifestDirectory} is null.
+     */
+    public void setManifestDirectory(File manifestDirectory) {
+        Validate.notNull(manifestDirectory,
+                "The argument manifestDirectory is null.");
+        this.manifestDirectory = manifestDirectory;
+    }
+
+    /**
+     * Set the number of threads that generate Java files concurrently. The
+     * default is a single thread.
+     *
+     * @param threads the number of threads.
+     * @throws IllegalArgumentException if {@code threads} is not positive.
+     */
+    public void setThreads(int threads) {
+        Validate.isTrue(threads > 0,
+                "The number of threads must be positive but is %d.", threads);
+        this.threads = threads;
+    }
+
+    /**
+     * Set the maximum number of Scroole files that have been found but
+     * whose files have not been written yet. Scroole stops searching Scroole
+     * files while there are that many files. Therefore it needs the same
+     * amount of memory for directories with a few and with hundreds of
+     * thousands of Scroole files. The default is four times the number of
+     * threads.
+     *
+     * @param maximumPendingFiles the maximum number of pending files.
+     * @throws IllegalArgumentException if {@code maximumPendingFiles} is not
+     * positive.
+     */
+    public void setMaximumPendingFiles(int maximumPendingFiles) {
+        Validate.isTrue(maximumPendingFiles > 0,
+                "The maximum number of pending files must be positive but is"
+                        + " %d.", maximumPendingFiles);
+        this.maximumPendingFiles = maximumPendingFiles;
+    }
+
+    /**
+     * Set whether Scroole measures the bytes that it allocates (see
+     * {@link GenerationReport#allocatedBytes}). Disable it for short-lived
+     * JVMs, because the measurement needs the management classes of the
+     * JVM, which take some time to load. It is enabled by default.
+     *
+     * @param measureAllocations whether allocations are measured.
+     */
+    public void setMeasureAllocations(boolean measureAllocations) {
+        this.measureAllocations = measureAllocations;
+    }
+
+    /**
+     * Set the patterns of the Scroole files that are processed. The patterns
+     * are Ant-style patterns relative to the directory with the Scroole
+     * files (e.g. {@code com/acme/**&#47;*.scroole}). Only the directories
+     * that are named by the leading segments of the patterns are searched.
+     * The default pattern is {@code **&#47;*.scroole}.
+     *
+     * @param includes the patterns of the Scroole files.
+     * @throws NullPointerException if {@code includes} is null.
+     * @throws IllegalArgumentException if {@code includes} is empty.
+     */
+    public void setIncludes(List<String> includes) {
+        Validate.notEmpty(includes, "The argument includes is empty.");
+        this.includes = new ArrayList<>(includes);
+    }
+
     /**
-     * Generate a Java file for each Scroole file.
+     * Set the patterns of the Scroole files that are not processed. The
+     * patterns are Ant-style patterns like the includes. Directories that
+     * are excluded by a pattern ending with {@code /**} are not searched at
+     * all. There are no excludes by default.
+     *
+     * @param excludes the patterns of the excluded Scroole files.
+     * @throws NullPointerException if {@code excludes} is null.
+     */
+    public void setExcludes(List<String> excludes) {
+        Validate.notNull(excludes, "The argument excludes is null.");
+        this.excludes = new ArrayList<>(excludes);
+    }
+
+    /**
+     * Set a cache for the generated files. Scroole copies a generated file
+     * from the cache if it generated the same class for the same Scroole
+     * code before. Otherwise it adds the generated file to the cache. There
+     * is no cache by default.
+     *
+     * @param cache the cache.
+     * @throws NullPointerException if {@code cache} is null.
+     */
+    public void setCache(GenerationCache cache) {
+        Validate.notNull(cache, "The argument cache is null.");
+        this.cache = cache;
+    }
+
+    /**
+     * Generate a Java file for each Scroole file. Scroole files that did not
+     * change since the last run are skipped if their Java file still exists.
+     * Java files of Scroole files that have been deleted since the last run
+     * are deleted, too.
+     *
+     * @throws GenerationException if at least one Java file could not be
+     * generated. The exception provides every Scroole file that failed. All
+     * other Java files are generated nevertheless.
+     * @throws IOException if the manifest cannot be read or written.
+     * @see #getReport()
      */
     public void generateFiles() throws IOException {
-        for (File file : getScrooleFiles())
-            generateJavaFile(file);
+        generate(null);
+    }
+
+    /**
+     * Generate the Java files for some Scroole files only. The directory
+     * with the Scroole files is not searched. The Java file of each of these
+     * Scroole files is generated like by {@link #generateFiles()} if the
+     * Scroole file exists and matches the includes and excludes. Otherwise
+     * its Java file is deleted. The Java files of all other Scroole files
+     * are neither generated nor deleted.
+     *
+     * @param scrooleFiles the Scroole files that may have changed. Files
+     *                     outside of the directory with the Scroole files
+     *                     are ignored.
+     * @throws GenerationException if at least one Java file could not be
+     * generated.
+     * @throws IOException if the manifest cannot be read or written.
+     * @see ScrooleWatcher
+     */
+    public void generateFiles(Collection<File> scrooleFiles)
+            throws IOException {
+        Validate.notNull(scrooleFiles, "The argument scrooleFiles is null.");
+        generate(scrooleFiles);
+    }
+
+    //Searches the whole directory if there are no candidates.
+    private void generate(Collection<File> candidates) throws IOException {
+        long start = System.nanoTime();
+        GenerationReport.Recorder recorder
+                = new GenerationReport.Recorder(measureAllocations);
+        Manifest previousManifest = Manifest.readFrom(manifestDirectory);
+        Manifest manifest = new Manifest();
+        if (candidates != null)
+            keepEntriesOfOtherScrooleFiles(
+                    candidates, previousManifest, manifest);
+        Map<File, Throwable> failures = generateJavaFiles(
+                candidates, previousManifest, manifest, recorder);
+        deleteJavaFilesOfDeletedScrooleFiles(
+                previousManifest, manifest, recorder);
+        manifest.writeTo(manifestDirectory);
+        if (cache != null)
+            cache.evict();
+        recorder.totalTime = System.nanoTime() - start;
+        report = recorder.toReport();
+        throwExceptionIfGenerationFailed(failures);
+    }
+
+    /**
+     * Returns the statistics of the last run of {@link #generateFiles()}.
+     * The report is available even if {@code generateFiles()} threw a
+     * {@link GenerationException}.
+     *
+     * @return the statistics of the last run or {@code null} if
+     * {@code generateFiles()} has not been completed yet.
+     */
+    public GenerationReport getReport() {
+        return report;
+    }
+
+    private ScrooleFileFinder createFinder() {
+        return new ScrooleFileFinder(
+                directoryWithScrooleFiles, includes, excludes);
+    }
+
+    private void keepEntriesOfOtherScrooleFiles(Collection<File> candidates,
+            Manifest previousManifest, Manifest manifest) {
+        Set<String> localPathsOfCandidates = new HashSet<>();
+        for (File candidate : candidates)
+            if (isInDirectoryWithScrooleFiles(candidate))
+                localPathsOfCandidates.add(getLocalPath(candidate));
+        for (String scrooleFile : previousManifest.getScrooleFiles())
+            if (!localPathsOfCandidates.contains(scrooleFile))
+                manifest.put(scrooleFile, previousManifest.get(scrooleFile));
+    }
+
+    //Java files are generated while the finder is still searching for
+    //Scroole files. The finder waits if too many files are pending, so that
+    //the memory for the pending files is bounded.
+    private Map<File, Throwable> generateJavaFiles(Collection<File> candidates,
+            Manifest previousManifest, Manifest manifest,
+            GenerationReport.Recorder recorder) throws IOException {
+        ExecutorService executor = createExecutor();
+        try {
+            Generation generation = new Generation(executor,
+                    getMaximumPendingFiles(), previousManifest, manifest,
+                    recorder);
+            long start = System.nanoTime();
+            if (candidates == null)
+                createFinder().find(generation);
+            else
+                createFinder().find(candidates, generation);
+            recorder.scanTime += System.nanoTime() - start
+                    - generation.timeNotScanning;
+            generation.awaitCompletion();
+            return generation.failures;
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
-    private Collection<File> getScrooleFiles() {
-        return listFiles(directoryWithScrooleFiles,
-                new String[]{SCROOLE_FILE_SUFFIX}, RECURSIVE);
+    private ExecutorService createExecutor() {
+        if (threads == 1)
+            return new CurrentThreadExecutorService();
+        else
+            return Executors.newFixedThreadPool(threads);
+    }
+
+    private int getMaximumPendingFiles() {
+        return maximumPendingFiles == -1
+                ? PENDING_FILES_PER_THREAD * threads : maximumPendingFiles;
     }
 
-    private void generateJavaFile(File file) throws IOException {
-        String canonicalName = getClassName(file);
-        String description = readFileToString(file);
-        writeJavaFileForScrooleFile(canonicalName, description);
+    //The Java file of a Scroole file that cannot be generated must not be
+    //deleted, because the Scroole file still exists.
+    private void keepPreviousEntry(String localPath,
+            Manifest previousManifest, Manifest manifest) {
+        Manifest.Entry previousEntry = previousManifest.get(localPath);
+        if (previousEntry != null)
+            manifest.put(localPath, previousEntry);
     }
 
-    private String getClassName(File file) {
-        String localPath = substringAfter(file.getAbsolutePath(),
-                directoryWithScrooleFiles.getAbsolutePath());
+    private void throwExceptionIfGenerationFailed(
+            Map<File, Throwable> failures) throws GenerationException {
+        if (!failures.isEmpty())
+            throw new GenerationException(failures);
+    }
+
+    private boolean isInDirectoryWithScrooleFiles(File file) {
+        return file.getAbsoluteFile().toPath().startsWith(
+                directoryWithScrooleFiles.getAbsoluteFile().toPath());
+    }
+
+    private String getLocalPath(File file) {
+        return substringAfter(file.getAbsolutePath(),
+                directoryWithScrooleFiles.getAbsolutePath()).substring(1);
+    }
+
+    static String getClassName(String localPath) {
         return substringBeforeLast(localPath, "." + SCROOLE_FILE_SUFFIX)
-                .substring(1).replace("/", ".");
+                .replace("/", ".");
+    }
+
+    private String getJavaFilename(String canonicalName) {
+        return canonicalName.replace(".", "/") + outputFormat.fileSuffix;
+    }
+
+    private ClassSpecification parse(String canonicalName, File scrooleFile)
+            throws IOException {
+        try (Reader reader = new InputStreamReader(
+                new FileInputStream(scrooleFile), Charset.defaultCharset())) {
+            return PARSER.parse(canonicalName, reader);
+        }
+    }
+
+    private void deleteJavaFilesOfDeletedScrooleFiles(
+            Manifest previousManifest, Manifest manifest,
+            GenerationReport.Recorder recorder) throws IOException {
+        for (String scrooleFile : previousManifest.getScrooleFiles())
+            if (isObsolete(scrooleFile, previousManifest, manifest)) {
+                deleteJavaFile(previousManifest.get(scrooleFile));
+                ++recorder.deletedFiles;
+            }
+    }
+
+    //The file is obsolete if the Scroole file has been deleted or if it has
+    //been generated with another output format.
+    private boolean isObsolete(String scrooleFile, Manifest previousManifest,
+            Manifest manifest) {
+        Manifest.Entry entry = manifest.get(scrooleFile);
+        return entry == null || !entry.javaFile.equals(
+                previousManifest.get(scrooleFile).javaFile);
+    }
+
+    private void deleteJavaFile(Manifest.Entry entry) throws IOException {
+        File javaFile = new File(outputDirectory, entry.javaFile);
+        if (javaFile.exists() && !javaFile.delete())
+            throw new IOException("Could not delete the Java file " + javaFile
+                    + " of a deleted Scroole file.");
+        deleteEmptyDirectories(javaFile.getParentFile());
+    }
+
+    private void deleteEmptyDirectories(File directory) {
+        //File.delete() does not delete directories that are not empty.
+        while (directory != null && !directory.equals(outputDirectory)
+                && directory.delete())
+            directory = directory.getParentFile();
+    }
+
+    //The results of the tasks are collected as soon as a task is finished.
+    //Therefore neither the tasks nor their results are kept until the end.
+    private class Generation implements ScrooleFileFinder.Callback {
+        final ExecutorService executor;
+        final int maximumPendingFiles;
+        final Semaphore pendingFiles;
+        final Manifest previousManifest;
+        final Manifest manifest;
+        final GenerationReport.Recorder recorder;
+        //sorted by path, because the threads finish in random order
+        final Map<File, Throwable> failures = new TreeMap<>();
+        int numberOfPendingFiles = 0;
+        long timeNotScanning = 0;
+
+        Generation(ExecutorService executor, int maximumPendingFiles,
+                Manifest previousManifest, Manifest manifest,
+                GenerationReport.Recorder recorder) {
+            this.executor = executor;
+            this.maximumPendingFiles = maximumPendingFiles;
+            this.pendingFiles = new Semaphore(maximumPendingFiles);
+            this.previousManifest = previousManifest;
+            this.manifest = manifest;
+            this.recorder = recorder;
+        }
+
+        @Override
+        public void found(File scrooleFile) throws IOException {
+            long start = System.nanoTime();
+            //back-pressure: wait until a pending file has been written
+            acquire(1);
+            addPendingFile();
+            final GenerationTask task = new GenerationTask(
+                    scrooleFile, previousManifest);
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } finally {
+                        collect(task);
+                        pendingFiles.release();
+                    }
+                }
+            });
+            //the time of waiting and of generating the Java file in the
+            //current thread (if Scroole uses a single thread)
+            timeNotScanning += System.nanoTime() - start;
+        }
+
+        void awaitCompletion() throws IOException {
+            acquire(maximumPendingFiles);
+            pendingFiles.release(maximumPendingFiles);
+        }
+
+        private void acquire(int permits) throws IOException {
+            try {
+                pendingFiles.acquire(permits);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(
+                        "Interrupted while generating Java files.");
+            }
+        }
+
+        private synchronized void addPendingFile() {
+            ++numberOfPendingFiles;
+            recorder.maximumPendingFiles = Math.max(
+                    recorder.maximumPendingFiles, numberOfPendingFiles);
+        }
+
+        private synchronized void collect(GenerationTask task) {
+            --numberOfPendingFiles;
+            if (task.failure == null)
+                manifest.put(task.localPath, task.entry);
+            else {
+                failures.put(task.file, task.failure);
+                keepPreviousEntry(task.localPath, previousManifest, manifest);
+            }
+            task.addStatisticsTo(recorder);
+        }
+    }
+
+    private enum Outcome {
+        SKIPPED, REGENERATED, UNCHANGED, FAILED
     }
 
-    private void writeJavaFileForScrooleFile(String canonicalName,
-            String description) throws IOException {
-        ClassSpecification model = PARSER.parse(canonicalName, description);
-        String code = CODE_GENERATOR.createCode(model);
-        String filename = canonicalName.replace(".", "/") + ".java";
-        File outputFile = new File(outputDirectory, filename);
-        write(outputFile, code);
+    //The results and statistics are written by the thread that executes the
+    //task and read by the same thread after the task completed.
+    private class GenerationTask {
+        final File file;
+        final String localPath;
+        final Manifest previousManifest;
+        Manifest.Entry entry;
+        Throwable failure;
+        Outcome outcome = Outcome.FAILED;
+        long scanTime;
+        long parseTime;
+        long generateTime;
+        long writeTime;
+        long bytesWritten;
+        long allocatedBytes = -1;
+        boolean cached = false;
+
+        GenerationTask(File file, Manifest previousManifest) {
+            this.file = file;
+            this.localPath = getLocalPath(file);
+            this.previousManifest = previousManifest;
+        }
+
+        //Every problem of a single Scroole file is reported by the
+        //GenerationException and does not stop the other tasks.
+        void run() {
+            long allocatedBytesAtStart = allocatedBytesOfCurrentThread();
+            try {
+                entry = generateJavaFile();
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                long allocatedBytesAtEnd = allocatedBytesOfCurrentThread();
+                if (allocatedBytesAtStart != -1 && allocatedBytesAtEnd != -1)
+                    allocatedBytes = allocatedBytesAtEnd - allocatedBytesAtStart;
+            }
+        }
+
+        private long allocatedBytesOfCurrentThread() {
+            return measureAllocations
+                    ? GenerationReport.Recorder.allocatedBytesOfCurrentThread()
+                    : -1;
+        }
+
+        private Manifest.Entry generateJavaFile() throws IOException {
+            long start = System.nanoTime();
+            String canonicalName = getClassName(localPath);
+            String hash = Manifest.hash(file);
+            Manifest.Entry entry = new Manifest.Entry(
+                    hash, getJavaFilename(canonicalName));
+            boolean upToDate = previousManifest.isUpToDate(localPath, entry)
+                    && new File(outputDirectory, entry.javaFile).exists();
+            scanTime = System.nanoTime() - start;
+            if (upToDate)
+                outcome = Outcome.SKIPPED;
+            else
+                writeJavaFileForScrooleFile(canonicalName, hash);
+            return entry;
+        }
+
+        private void writeJavaFileForScrooleFile(String canonicalName,
+                String hash) throws IOException {
+            File outputFile = new File(outputDirectory,
+                    getJavaFilename(canonicalName));
+            String key = cache == null ? null
+                    : GenerationCache.key(canonicalName, hash, outputFormat);
+            if (key != null && copyFromCache(key, outputFile))
+                return;
+            long start = System.nanoTime();
+            final ClassSpecification model = parse(canonicalName, file);
+            parseTime = System.nanoTime() - start;
+            boolean written;
+            if (outputFormat == OutputFormat.BYTECODE)
+                written = writeClassFile(model, outputFile);
+            else
+                written = writeJavaFile(model, outputFile);
+            if (written) {
+                outcome = Outcome.REGENERATED;
+                bytesWritten = outputFile.length();
+            } else
+                outcome = Outcome.UNCHANGED;
+            if (key != null) {
+                start = System.nanoTime();
+                cache.put(key, outputFile);
+                writeTime += System.nanoTime() - start;
+            }
+        }
+
+        private boolean copyFromCache(String key, File outputFile)
+                throws IOException {
+            long start = System.nanoTime();
+            Path cachedFile = cache.get(key);
+            if (cachedFile == null)
+                return false;
+            boolean written;
+            try {
+                written = OutputFiles.copyIfChanged(
+                        cachedFile, outputFile, cache.isHardLinks());
+            } catch (NoSuchFileException e) {
+                //the file has been evicted by another process
+                return false;
+            }
+            writeTime = System.nanoTime() - start;
+            cached = true;
+            if (written) {
+                outcome = Outcome.REGENERATED;
+                bytesWritten = outputFile.length();
+            } else
+                outcome = Outcome.UNCHANGED;
+            return true;
+        }
+
+        private boolean writeJavaFile(final ClassSpecification model,
+                File outputFile) throws IOException {
+            long start = System.nanoTime();
+            //the code is streamed to the file without creating a String
+            boolean written = OutputFiles.writeIfChanged(outputFile,
+                    new OutputFiles.Content() {
+                        @Override
+                        public void writeTo(Writer writer) throws IOException {
+                            long start = System.nanoTime();
+                            CODE_GENERATOR.writeCode(model, writer);
+                            generateTime = System.nanoTime() - start;
+                        }
+                    });
+            writeTime = System.nanoTime() - start - generateTime;
+            return written;
+        }
+
+        private boolean writeClassFile(ClassSpecification model,
+                File outputFile) throws IOException {
+            long start = System.nanoTime();
+            byte[] bytecode = BYTECODE_GENERATOR.createBytecode(model);
+            generateTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            boolean written = OutputFiles.writeIfChanged(outputFile, bytecode);
+            writeTime = System.nanoTime() - start;
+            return written;
+        }
+
+        void addStatisticsTo(GenerationReport.Recorder recorder) {
+            ++recorder.scrooleFiles;
+            if (cached)
+                ++recorder.cachedFiles;
+            switch (outcome) {
+                case SKIPPED:
+                    ++recorder.skippedFiles;
+                    break;
+                case REGENERATED:
+                    ++recorder.regeneratedFiles;
+                    break;
+                case UNCHANGED:
+                    ++recorder.unchangedFiles;
+                    break;
+                default:
+                    ++recorder.failedFiles;
+            }
+            recorder.scanTime += scanTime;
+            recorder.parseTime += parseTime;
+            recorder.generateTime += generateTime;
+            recorder.writeTime += writeTime;
+            recorder.bytesWritten += bytesWritten;
+            recorder.addAllocatedBytes(allocatedBytes);
+            recorder.addSpecificationTime(localPath,
+                    scanTime + parseTime + generateTime + writeTime);
+        }
     }
 }
@@ -0,0 +1,238 @@
+package com.github.stefanbirkner.scroole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import static java.nio.file.FileVisitResult.CONTINUE;
+import static java.nio.file.FileVisitResult.SKIP_SUBTREE;
+
+/**
+ * Finds the Scroole files in a directory that match include and exclude
+ * patterns. The patterns are Ant-style patterns relative to the directory,
+ * e.g. {@code com/acme/**&#47;*.scroole}. The finder only walks the
+ * directories that are named by the leading segments of the includes and
+ * does not walk directories that are excluded by a pattern ending with
+ * {@code /**}. It reports each Scroole file as soon as it is found.
+ */
+class ScrooleFileFinder {
+    private static final String SPECIAL_CHARACTERS = "\\.[]{}()+-^$|";
+    private final Path directory;
+    private final List<String> includes;
+    private final List<Pattern> includePatterns;
+    private final List<Pattern> excludePatterns;
+    private final List<Pattern> excludedDirectoryPatterns;
+
+    ScrooleFileFinder(File directory, List<String> includes,
+            List<String> excludes) {
+        this.directory = directory.toPath().toAbsolutePath();
+        this.includes = normalize(includes);
+        this.includePatterns = compile(this.includes);
+        this.excludePatterns = compile(normalize(excludes));
+        this.excludedDirectoryPatterns = compileExcludedDirectories(
+                normalize(excludes));
+    }
+
+    /**
+     * Walks the directory and calls the callback for each Scroole file
+     * that matches the patterns.
+     *
+     * @param callback receives the Scroole files.
+     * @throws IOException if the directory cannot be read or the callback
+     * throws an {@code IOException}.
+     */
+    void find(Callback callback) throws IOException {
+        Visitor visitor = new Visitor(callback);
+        for (String baseDirectory : getBaseDirectories()) {
+            Path path = directory.resolve(baseDirectory);
+            if (Files.isDirectory(path))
+                Files.walkFileTree(path, visitor);
+        }
+    }
+
+    /**
+     * Calls the callback for each of the candidates that is a Scroole file
+     * in the directory and matches the patterns. The directory is not
+     * walked.
+     *
+     * @param candidates files that may be Scroole files.
+     * @param callback receives the Scroole files.
+     * @throws IOException if the callback throws an {@code IOException}.
+     */
+    void find(Collection<File> candidates, Callback callback)
+            throws IOException {
+        for (File candidate : candidates)
+            if (candidate.isFile() && matches(candidate))
+                callback.found(candidate);
+    }
+
+    /**
+     * Checks whether a file is in the directory and matches the patterns. It
+     * does not check whether the file exists.
+     *
+     * @param file the file.
+     * @return {@code true} if the file matches the patterns.
+     */
+    boolean matches(File file) {
+        return matches(file.toPath().toAbsolutePath());
+    }
+
+    private boolean matches(Path path) {
+        if (!path.startsWith(directory))
+            return false;
+        String relativePath = getRelativePath(path);
+        return matchesOneOf(includePatterns, relativePath)
+                && !matchesOneOf(excludePatterns, relativePath);
+    }
+
+    private List<String> getBaseDirectories() {
+        List<String> baseDirectories = new ArrayList<>();
+        //sorted, so that a directory is visited before its subdirectories
+        for (String baseDirectory : getBaseDirectoriesOfIncludes())
+            if (!isInOneOf(baseDirectory, baseDirectories))
+                baseDirectories.add(baseDirectory);
+        return baseDirectories;
+    }
+
+    private TreeSet<String> getBaseDirectoriesOfIncludes() {
+        TreeSet<String> baseDirectories = new TreeSet<>();
+        for (String include : includes)
+            baseDirectories.add(getBaseDirectory(include));
+        return baseDirectories;
+    }
+
+    private String getBaseDirectory(String pattern) {
+        int end = 0;
+        for (int i = 0; i < pattern.length(); ++i) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?')
+                break;
+            else if (c == '/')
+                end = i;
+        }
+        return pattern.substring(0, end);
+    }
+
+    private boolean isInOneOf(String directory, List<String> baseDirectories) {
+        for (String baseDirectory : baseDirectories)
+            if (baseDirectory.isEmpty()
+                    || directory.startsWith(baseDirectory + "/"))
+                return true;
+        return false;
+    }
+
+    private String getRelativePath(Path path) {
+        return directory.relativize(path).toString()
+                .replace(File.separatorChar, '/');
+    }
+
+    private static List<String> normalize(List<String> patterns) {
+        List<String> normalizedPatterns = new ArrayList<>();
+        for (String pattern : patterns) {
+            String normalizedPattern = pattern.trim().replace('\\', '/');
+            if (normalizedPattern.startsWith("/"))
+                normalizedPattern = normalizedPattern.substring(1);
+            //Ant treats a trailing slash like a trailing /**
+            if (normalizedPattern.endsWith("/"))
+                normalizedPattern += "**";
+            normalizedPatterns.add(normalizedPattern);
+        }
+        return normalizedPatterns;
+    }
+
+    private static List<Pattern> compile(List<String> globs) {
+        List<Pattern> patterns = new ArrayList<>();
+        for (String glob : globs)
+            patterns.add(compile(glob));
+        return patterns;
+    }
+
+    private static List<Pattern> compileExcludedDirectories(
+            List<String> excludes) {
+        List<Pattern> patterns = new ArrayList<>();
+        for (String exclude : excludes)
+            if (exclude.endsWith("/**"))
+                patterns.add(compile(
+                        exclude.substring(0, exclude.length() - 3)));
+        return patterns;
+    }
+
+    /**
+     * Converts an Ant-style pattern to a regular expression.
+     * {@code **&#47;} matches any number of directories, {@code **} matches
+     * everything, {@code *} matches everything within a directory and
+     * {@code ?} matches a single character within a directory.
+     */
+    static Pattern compile(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < glob.length(); ++i) {
+            char c = glob.charAt(i);
+            if (glob.startsWith("**/", i)) {
+                regex.append("(?:.*/)?");
+                i += 2;
+            } else if (glob.startsWith("**", i)) {
+                regex.append(".*");
+                ++i;
+            } else if (c == '*')
+                regex.append("[^/]*");
+            else if (c == '?')
+                regex.append("[^/]");
+            else if (SPECIAL_CHARACTERS.indexOf(c) != -1)
+                regex.append('\\').append(c);
+            else
+                regex.append(c);
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static boolean matchesOneOf(List<Pattern> patterns, String path) {
+        for (Pattern pattern : patterns)
+            if (pattern.matcher(path).matches())
+                return true;
+        return false;
+    }
+
+    /**
+     * Receives the Scroole files that are found by the
+     * {@link ScrooleFileFinder}.
+     */
+    interface Callback {
+        void found(File scrooleFile) throws IOException;
+    }
+
+    private class Visitor extends SimpleFileVisitor<Path> {
+        final Callback callback;
+
+        Visitor(Callback callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir,
+                BasicFileAttributes attrs) {
+            String path = getRelativePath(dir);
+            if (!path.isEmpty()
+                    && matchesOneOf(excludedDirectoryPatterns, path))
+                return SKIP_SUBTREE;
+            else
+                return CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+                throws IOException {
+            if (attrs.isRegularFile() && matches(file))
+                callback.found(file.toFile());
+            return CONTINUE;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.github.stefanbirkner.scroole;
+
+import com.github.stefanbirkner.scroole.model.ClassSpecification;
+import com.github.stefanbirkner.scroole.model.Diagnostic;
+import com.github.stefanbirkner.scroole.model.InvalidScrooleCodeException;
+import com.github.stefanbirkner.scroole.model.Parser;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.TypeElement;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static javax.tools.Diagnostic.Kind.ERROR;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.split;
+
+/**
+ * Generates the Java files for Scroole files inside of javac. The processor
+ * writes the Java code to the compiler's {@code Filer} and therefore javac
+ * compiles the classes in the same run without a separate generation step.
+ * <p>The processor is configured by annotation processor options:
+ * <ul>
+ * <li>{@code scroole.sourceDirectories}: the directories with the Scroole
+ * files, separated by the path separator (e.g. {@code :} on Unix). The
+ * processor does nothing if this option is not set.</li>
+ * <li>{@code scroole.includes}: comma separated Ant-style patterns of the
+ * Scroole files. The default is {@code **&#47;*.scroole}.</li>
+ * <li>{@code scroole.excludes}: comma separated Ant-style patterns of
+ * Scroole files that are ignored.</li>
+ * <li>{@code scroole.encoding}: the encoding of the Scroole files. The
+ * default is the platform encoding.</li>
+ * </ul>
+ */
+@SupportedAnnotationTypes("*")
+@SupportedOptions({
+        ScrooleProcessor.SOURCE_DIRECTORIES_OPTION,
+        ScrooleProcessor.INCLUDES_OPTION,
+        ScrooleProcessor.EXCLUDES_OPTION,
+        ScrooleProcessor.ENCODING_OPTION})
+public class ScrooleProcessor extends AbstractProcessor {
+    static final String SOURCE_DIRECTORIES_OPTION = "scroole.sourceDirectories";
+    static final String INCLUDES_OPTION = "scroole.includes";
+    static final String EXCLUDES_OPTION = "scroole.excludes";
+    static final String ENCODING_OPTION = "scroole.encoding";
+    private final CodeGenerator codeGenerator = new CodeGenerator();
+    private final Parser parser = new Parser();
+    private boolean generated = false;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    /**
+     * Generates the Java files in the first round. The processor does not
+     * claim any annotation.
+     */
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations,
+            RoundEnvironment roundEnv) {
+        if (!generated) {
+            generated = true;
+            generateJavaFiles(processingEnv.getOptions());
+        }
+        return false;
+    }
+
+    private void generateJavaFiles(Map<String, String> options) {
+        String sourceDirectories = options.get(SOURCE_DIRECTORIES_OPTION);
+        if (isBlank(sourceDirectories))
+            return;
+        List<String> includes = getPatterns(options.get(INCLUDES_OPTION),
+                Scroole.DEFAULT_INCLUDES);
+        List<String> excludes = getPatterns(options.get(EXCLUDES_OPTION),
+                new ArrayList<String>());
+        Charset charset = getCharset(options.get(ENCODING_OPTION));
+        for (String directory
+                : split(sourceDirectories, File.pathSeparator))
+            generateJavaFiles(new File(directory.trim()), includes, excludes,
+                    charset);
+    }
+
+    private List<String> getPatterns(String option, List<String> defaults) {
+        if (isBlank(option))
+            return defaults;
+        else
+            return asList(split(option, ','));
+    }
+
+    private Charset getCharset(String encoding) {
+        if (isBlank(encoding))
+            return Charset.defaultCharset();
+        else
+            return Charset.forName(encoding.trim());
+    }
+
+    private void generateJavaFiles(final File directory, List<String> includes,
+            List<String> excludes, final Charset charset) {
+        if (!directory.isDirectory()) {
+            error("The directory with Scroole files " + directory
+                    + " does not exist.");
+            return;
+        }
+        try {
+            new ScrooleFileFinder(directory, includes, excludes).find(
+                    new ScrooleFileFinder.Callback() {
+                        @Override
+                        public void found(File scrooleFile) {
+                            generateJavaFile(directory, scrooleFile, charset);
+                        }
+                    });
+        } catch (IOException e) {
+            error("Could not search the Scroole files in " + directory
+                    + ": " + e.getMessage());
+        }
+    }
+
+    //A broken Scroole file must not stop the generation of other Java files.
+    private void generateJavaFile(File directory, File scrooleFile,
+            Charset charset) {
+        try {
+            ClassSpecification specification = parse(
+                    getCanonicalName(directory, scrooleFile), scrooleFile,
+                    charset);
+            codeGenerator.writeCode(specification, processingEnv.getFiler());
+        } catch (InvalidScrooleCodeException e) {
+            for (Diagnostic diagnostic : e.getDiagnostics())
+                error(scrooleFile + ":" + diagnostic.line + ":"
+                        + diagnostic.column + ": " + diagnostic.message);
+        } catch (IOException e) {
+            error("Could not generate the Java file for " + scrooleFile
+                    + ": " + e.getMessage());
+        }
+    }
+
+    private String getCanonicalName(File directory, File scrooleFile) {
+        String localPath = directory.toPath().toAbsolutePath()
+                .relativize(scrooleFile.toPath().toAbsolutePath())
+                .toString().replace(File.separatorChar, '/');
+        return Scroole.getClassName(localPath);
+    }
+
+    private ClassSpecification parse(String canonicalName, File scrooleFile,
+            Charset charset) throws IOException {
+        try (Reader reader = new InputStreamReader(
+                new FileInputStream(scrooleFile), charset)) {
+            return parser.parse(canonicalName, reader);
+        }
+    }
+
+    private void error(String message) {
+        processingEnv.getMessager().printMessage(ERROR, message);
+    }
+}
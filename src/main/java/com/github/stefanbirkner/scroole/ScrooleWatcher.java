@@ -0,0 +1,234 @@
+package com.github.stefanbirkner.scroole;
+
+import org.apache.commons.lang3.Validate;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static java.nio.file.FileVisitResult.CONTINUE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Watches the directory with the Scroole files and regenerates the Java
+ * files of Scroole files that are created, modified or deleted. Editors
+ * often write a file in several steps. Therefore the watcher waits until
+ * there are no more changes for a short time (the debounce time) and then
+ * regenerates all changed files at once.
+ * <pre>
+ * Scroole scroole = new Scroole(directoryWithScrooleFiles, outputDirectory);
+ * try (ScrooleWatcher watcher = new ScrooleWatcher(scroole)) {
+ *     watcher.run(); //until another thread closes the watcher
+ * }
+ * </pre>
+ */
+public class ScrooleWatcher implements Closeable {
+    private static final long DEFAULT_DEBOUNCE_TIME = 100;
+    private static final Listener NO_LISTENER = new Listener() {
+        @Override
+        public void generated(GenerationReport report) {
+        }
+
+        @Override
+        public void failed(IOException e) {
+        }
+    };
+    private final Scroole scroole;
+    private final Path directory;
+    private final Path outputDirectory;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    private long debounceTime = DEFAULT_DEBOUNCE_TIME;
+    private Listener listener = NO_LISTENER;
+
+    /**
+     * Creates a watcher for the Scroole files of a {@link Scroole}
+     * generator.
+     *
+     * @param scroole the generator that creates the Java files.
+     * @throws IOException if the file system does not support watching
+     * directories.
+     */
+    public ScrooleWatcher(Scroole scroole) throws IOException {
+        Validate.notNull(scroole, "The argument scroole is null.");
+        this.scroole = scroole;
+        this.directory = scroole.getDirectoryWithScrooleFiles().toPath()
+                .toAbsolutePath();
+        this.outputDirectory = scroole.getOutputDirectory().toPath()
+                .toAbsolutePath();
+        this.watchService = FileSystems.getDefault().newWatchService();
+    }
+
+    /**
+     * Set the time without any change that the watcher waits before it
+     * regenerates the Java files. The default is 100 milliseconds.
+     *
+     * @param milliseconds the debounce time in milliseconds.
+     * @throws IllegalArgumentException if {@code milliseconds} is negative.
+     */
+    public void setDebounceTime(long milliseconds) {
+        Validate.isTrue(milliseconds >= 0,
+                "The debounce time must not be negative but is %d.",
+                milliseconds);
+        this.debounceTime = milliseconds;
+    }
+
+    /**
+     * Set a listener that is notified each time the watcher generated Java
+     * files.
+     *
+     * @param listener the listener.
+     */
+    public void setListener(Listener listener) {
+        Validate.notNull(listener, "The argument listener is null.");
+        this.listener = listener;
+    }
+
+    /**
+     * Generates all Java files and afterwards regenerates the Java files of
+     * changed Scroole files until the watcher is closed or the thread is
+     * interrupted. Problems with the Scroole files are reported to the
+     * listener and do not stop the watcher.
+     *
+     * @throws IOException if the directory with the Scroole files cannot be
+     * watched.
+     */
+    public void run() throws IOException {
+        try {
+            registerDirectoryTree(directory);
+            generateAllFiles();
+            while (!Thread.currentThread().isInterrupted())
+                processChanges(watchService.take());
+        } catch (ClosedWatchServiceException e) {
+            //the watcher has been closed.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops the watcher. A running {@link #run()} returns.
+     *
+     * @throws IOException if the watch service cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private void processChanges(WatchKey firstKey)
+            throws IOException, InterruptedException {
+        Changes changes = new Changes();
+        WatchKey key = firstKey;
+        while (key != null) {
+            changes.add(key);
+            key = watchService.poll(debounceTime, MILLISECONDS);
+        }
+        if (changes.complete)
+            generateAllFiles();
+        else if (!changes.files.isEmpty())
+            generateFiles(changes.files);
+    }
+
+    private void generateAllFiles() {
+        try {
+            scroole.generateFiles();
+            listener.generated(scroole.getReport());
+        } catch (IOException e) {
+            listener.failed(e);
+        }
+    }
+
+    private void generateFiles(Set<File> files) {
+        try {
+            scroole.generateFiles(files);
+            listener.generated(scroole.getReport());
+        } catch (IOException e) {
+            listener.failed(e);
+        }
+    }
+
+    private void registerDirectoryTree(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir,
+                    BasicFileAttributes attrs) throws IOException {
+                WatchKey key = dir.register(watchService,
+                        ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+                directories.put(key, dir);
+                return CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Receives the results of the watcher's runs.
+     */
+    public interface Listener {
+        /**
+         * Called after the watcher generated Java files.
+         *
+         * @param report the statistics of the run.
+         */
+        void generated(GenerationReport report);
+
+        /**
+         * Called if the watcher could not generate Java files.
+         *
+         * @param e the reason. A {@link GenerationException} if Scroole
+         *          files are invalid.
+         */
+        void failed(IOException e);
+    }
+
+    private class Changes {
+        final Set<File> files = new LinkedHashSet<>();
+        //all files have to be generated if the watcher missed events
+        boolean complete = false;
+
+        void add(WatchKey key) throws IOException {
+            Path dir = directories.get(key);
+            for (WatchEvent<?> event : key.pollEvents())
+                if (event.kind() == OVERFLOW)
+                    complete = true;
+                else
+                    add(dir.resolve((Path) event.context()), event.kind());
+            if (!key.reset()) {
+                //the directory has been deleted together with its files
+                directories.remove(key);
+                complete = true;
+            }
+        }
+
+        private void add(Path path, WatchEvent.Kind<?> kind)
+                throws IOException {
+            //the watcher must not react on its own Java files
+            if (path.startsWith(outputDirectory))
+                return;
+            if (kind == ENTRY_CREATE && Files.isDirectory(path)) {
+                //files may have been created before the directory is watched
+                registerDirectoryTree(path);
+                complete = true;
+            } else
+                files.add(path.toFile());
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.github.stefanbirkner.scroole.cli;
+
+import com.github.stefanbirkner.scroole.GenerationCache;
+import com.github.stefanbirkner.scroole.GenerationException;
+import com.github.stefanbirkner.scroole.OutputFormat;
+import com.github.stefanbirkner.scroole.Scroole;
+import com.github.stefanbirkner.scroole.model.Diagnostic;
+import com.github.stefanbirkner.scroole.model.InvalidScrooleCodeException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates the Java files of Scroole files from the command line. It only
+ * needs Scroole and its code generation libraries and not Maven.
+ * <pre>
+ * java -jar scroole-cli.jar -s src/main/scroole -o target/generated [files]
+ * </pre>
+ * Without files the whole source directory is processed. Otherwise only
+ * the given Scroole files are generated, like by
+ * {@link Scroole#generateFiles(java.util.Collection)}. The argument
+ * {@code -} reads further files from standard input, one per line.
+ * <p>The command starts fast: it does not use reflection and does not
+ * measure allocations, which needs the JVM's management classes. It can be
+ * combined with a class data sharing archive of the JVM.
+ */
+public class ScrooleCli {
+    static final int SUCCESS = 0;
+    static final int GENERATION_FAILED = 1;
+    static final int INVALID_ARGUMENTS = 2;
+    private static final String USAGE
+            = "Usage: scroole -s <source directory> -o <output directory>"
+            + " [options] [Scroole files | -]\n"
+            + "Options:\n"
+            + "  -s, --source-directory <dir>  directory with Scroole files\n"
+            + "  -o, --output-directory <dir>  directory of generated files\n"
+            + "  --include <pattern>           Ant-style pattern of Scroole"
+            + " files (repeatable)\n"
+            + "  --exclude <pattern>           Ant-style pattern of ignored"
+            + " files (repeatable)\n"
+            + "  --format <SOURCE|BYTECODE>    kind of generated files\n"
+            + "  --manifest-directory <dir>    directory of the manifest\n"
+            + "  --threads <number>            number of threads\n"
+            + "  --cache-directory <dir>       cache of generated files\n"
+            + "  --cache-size <bytes>          maximum size of the cache\n"
+            + "  -v, --verbose                 print statistics\n"
+            + "  -h, --help                    print this help\n"
+            + "  -                             read Scroole files from"
+            + " standard input";
+    private static final long DEFAULT_CACHE_SIZE = 100 * 1024 * 1024;
+    private final InputStream in;
+    private final PrintStream out;
+    private final PrintStream err;
+
+    ScrooleCli(InputStream in, PrintStream out, PrintStream err) {
+        this.in = in;
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        int status = new ScrooleCli(System.in, System.out, System.err)
+                .run(args);
+        System.exit(status);
+    }
+
+    /**
+     * Runs the command.
+     *
+     * @param args the command line arguments.
+     * @return the exit status.
+     */
+    int run(String[] args) {
+        Arguments arguments;
+        try {
+            arguments = Arguments.parse(args);
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return INVALID_ARGUMENTS;
+        }
+        if (arguments.help) {
+            out.println(USAGE);
+            return SUCCESS;
+        }
+        try {
+            return generate(arguments);
+        } catch (FileNotFoundException | IllegalArgumentException e) {
+            err.println(e.getMessage());
+            return INVALID_ARGUMENTS;
+        } catch (IOException e) {
+            err.println(e.getMessage());
+            return GENERATION_FAILED;
+        }
+    }
+
+    private int generate(Arguments arguments) throws IOException {
+        Scroole scroole = createScroole(arguments);
+        try {
+            if (arguments.scrooleFiles.isEmpty() && !arguments.readStdin)
+                scroole.generateFiles();
+            else
+                scroole.generateFiles(getScrooleFiles(arguments));
+            return SUCCESS;
+        } catch (GenerationException e) {
+            printFailures(e);
+            return GENERATION_FAILED;
+        } finally {
+            if (arguments.verbose && scroole.getReport() != null)
+                for (String line : scroole.getReport().getSummary())
+                    out.println(line);
+        }
+    }
+
+    private Scroole createScroole(Arguments arguments) throws IOException {
+        Scroole scroole = new Scroole(
+                arguments.sourceDirectory, arguments.outputDirectory);
+        scroole.setMeasureAllocations(false);
+        scroole.setOutputFormat(arguments.outputFormat);
+        if (arguments.manifestDirectory != null)
+            scroole.setManifestDirectory(arguments.manifestDirectory);
+        if (!arguments.includes.isEmpty())
+            scroole.setIncludes(arguments.includes);
+        scroole.setExcludes(arguments.excludes);
+        scroole.setThreads(arguments.threads);
+        if (arguments.cacheDirectory != null)
+            scroole.setCache(new GenerationCache(
+                    arguments.cacheDirectory, arguments.cacheSize));
+        return scroole;
+    }
+
+    private List<File> getScrooleFiles(Arguments arguments)
+            throws IOException {
+        List<File> files = new ArrayList<>();
+        for (String file : arguments.scrooleFiles)
+            files.add(new File(file).getAbsoluteFile());
+        if (arguments.readStdin)
+            addFilesFromStdin(files);
+        return files;
+    }
+
+    //The input is not closed, because it is System.in.
+    private void addFilesFromStdin(List<File> files) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in));
+        String line;
+        while ((line = reader.readLine()) != null)
+            if (!line.trim().isEmpty())
+                files.add(new File(line.trim()).getAbsoluteFile());
+    }
+
+    private void printFailures(GenerationException e) {
+        for (Map.Entry<File, Throwable> failure : e.getFailures().entrySet())
+            if (failure.getValue() instanceof InvalidScrooleCodeException)
+                for (Diagnostic diagnostic : ((InvalidScrooleCodeException)
+                        failure.getValue()).getDiagnostics())
+                    err.println(failure.getKey() + ":" + diagnostic.line + ":"
+                            + diagnostic.column + ": " + diagnostic.message);
+            else
+                err.println(failure.getKey() + ": " + failure.getValue());
+    }
+
+    static class Arguments {
+        File sourceDirectory;
+        File outputDirectory;
+        File manifestDirectory;
+        File cacheDirectory;
+        long cacheSize = DEFAULT_CACHE_SIZE;
+        OutputFormat outputFormat = OutputFormat.SOURCE;
+        int threads = 1;
+        final List<String> includes = new ArrayList<>();
+        final List<String> excludes = new ArrayList<>();
+        final List<String> scrooleFiles = new ArrayList<>();
+        boolean readStdin = false;
+        boolean verbose = false;
+        boolean help = false;
+
+        static Arguments parse(String[] args) {
+            Arguments arguments = new Arguments();
+            for (int i = 0; i < args.length; ++i) {
+                String arg = args[i];
+                if (arg.equals("-h") || arg.equals("--help"))
+                    arguments.help = true;
+                else if (arg.equals("-v") || arg.equals("--verbose"))
+                    arguments.verbose = true;
+                else if (arg.equals("-"))
+                    arguments.readStdin = true;
+                else if (arg.startsWith("-"))
+                    arguments.setOption(arg, value(args, ++i, arg));
+                else
+                    arguments.scrooleFiles.add(arg);
+            }
+            if (!arguments.help)
+                arguments.validate();
+            return arguments;
+        }
+
+        private static String value(String[] args, int index, String option) {
+            if (index < args.length)
+                return args[index];
+            else
+                throw new IllegalArgumentException(
+                        "The option " + option + " needs a value.");
+        }
+
+        private void setOption(String option, String value) {
+            switch (option) {
+                case "-s":
+                case "--source-directory":
+                    sourceDirectory = new File(value);
+                    break;
+                case "-o":
+                case "--output-directory":
+                    outputDirectory = new File(value);
+                    break;
+                case "--manifest-directory":
+                    manifestDirectory = new File(value);
+                    break;
+                case "--include":
+                    includes.add(value);
+                    break;
+                case "--exclude":
+                    excludes.add(value);
+                    break;
+                case "--format":
+                    outputFormat = parseOutputFormat(value);
+                    break;
+                case "--threads":
+                    threads = parseThreads(option, value);
+                    break;
+                case "--cache-directory":
+                    cacheDirectory = new File(value);
+                    break;
+                case "--cache-size":
+                    cacheSize = parseNumber(option, value);
+                    break;
+                default:
+                    throw new IllegalArgumentException(
+                            "Unknown option " + option + ".");
+            }
+        }
+
+        private static OutputFormat parseOutputFormat(String value) {
+            for (OutputFormat format : OutputFormat.values())
+                if (format.name().equalsIgnoreCase(value))
+                    return format;
+            throw new IllegalArgumentException(
+                    "Unknown format " + value + ".");
+        }
+
+        private static Long parseNumber(String option, String value) {
+            try {
+                return Long.valueOf(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("The value of " + option
+                        + " is not a number: " + value);
+            }
+        }
+
+        private static int parseThreads(String option, String value) {
+            long threads = parseNumber(option, value);
+            if (threads < 1 || threads > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("The value of " + option
+                        + " must be between 1 and " + Integer.MAX_VALUE
+                        + ": " + value);
+            return (int) threads;
+        }
+
+        private void validate() {
+            if (sourceDirectory == null)
+                throw new IllegalArgumentException(
+                        "The source directory is missing.");
+            if (outputDirectory == null)
+                throw new IllegalArgumentException(
+                        "The output directory is missing.");
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.stefanbirkner.scroole.maven;
+
+import com.github.stefanbirkner.scroole.GenerationCache;
+import com.github.stefanbirkner.scroole.OutputFormat;
+import com.github.stefanbirkner.scroole.Scroole;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+
+import static java.util.Arrays.asList;
+
+/**
+ * The configuration that is shared by the goals of the Scroole plugin.
+ */
+abstract class AbstractScrooleMojo extends AbstractMojo {
+    private static final String[] DEFAULT_INCLUDES = {"**/*.scroole"};
+
+    /**
+     * Location of the Java source files.
+     */
+    @Parameter(
+            defaultValue = "${project.build.directory}/generated-sources/scroole/",
+            required = true)
+    File outputDirectory;
+
+    /**
+     * Location of the Scroole files.
+     */
+    @Parameter(defaultValue = "src/main/java/", required = true)
+    File sourceDirectory;
+
+    /**
+     * Ant-style patterns of the Scroole files relative to the source
+     * directory. Only the directories that are named by the leading segments
+     * of the patterns are searched. The default pattern is
+     * {@code **&#47;*.scroole}.
+     */
+    @Parameter
+    String[] includes;
+
+    /**
+     * Ant-style patterns of Scroole files that are ignored. Directories that
+     * are excluded by a pattern ending with {@code /**} are not searched.
+     */
+    @Parameter
+    String[] excludes;
+
+    /**
+     * Number of threads that generate Java files concurrently.
+     */
+    @Parameter(property = "scroole.threads", defaultValue = "1")
+    int threads;
+
+    /**
+     * Kind of the generated files. {@code SOURCE} creates Java files in the
+     * {@code outputDirectory}. {@code BYTECODE} creates class files in the
+     * {@code classesDirectory}, so that they don't have to be compiled.
+     */
+    @Parameter(property = "scroole.outputFormat", defaultValue = "SOURCE")
+    OutputFormat outputFormat;
+
+    /**
+     * Location of the class files if the {@code outputFormat} is
+     * {@code BYTECODE}.
+     */
+    @Parameter(defaultValue = "${project.build.outputDirectory}",
+            required = true)
+    File classesDirectory;
+
+    /**
+     * Location of a cache for the generated files that can be shared by
+     * multiple modules and builds. There is no cache by default.
+     */
+    @Parameter(property = "scroole.cacheDirectory")
+    File cacheDirectory;
+
+    /**
+     * Maximum size of the cache in bytes. The least recently used files are
+     * deleted if the cache is bigger.
+     */
+    @Parameter(property = "scroole.cacheSize", defaultValue = "104857600")
+    long cacheSize;
+
+    /**
+     * Create hard links to the cached files instead of copying them.
+     */
+    @Parameter(property = "scroole.cacheHardLinks", defaultValue = "false")
+    boolean cacheHardLinks;
+
+    @Parameter(defaultValue = "${project.build.directory}/scroole",
+            required = true, readonly = true)
+    File manifestDirectory;
+
+    @Parameter(defaultValue = "${project}", required = true, readonly = true)
+    MavenProject project;
+
+    Scroole createScroole() throws FileNotFoundException {
+        Scroole scroole = new Scroole(sourceDirectory, getOutputDirectory());
+        scroole.setOutputFormat(outputFormat);
+        //the manifest must not be packaged together with the class files
+        if (outputFormat == OutputFormat.BYTECODE)
+            scroole.setManifestDirectory(manifestDirectory);
+        scroole.setIncludes(asList(getIncludes()));
+        if (excludes != null)
+            scroole.setExcludes(asList(excludes));
+        scroole.setThreads(threads);
+        if (cacheDirectory != null)
+            scroole.setCache(createCache());
+        return scroole;
+    }
+
+    private GenerationCache createCache() {
+        GenerationCache cache = new GenerationCache(cacheDirectory, cacheSize);
+        cache.setHardLinks(cacheHardLinks);
+        return cache;
+    }
+
+    String[] getIncludes() {
+        return includes == null || includes.length == 0
+                ? DEFAULT_INCLUDES : includes;
+    }
+
+    File getOutputDirectory() {
+        return outputFormat == OutputFormat.BYTECODE
+                ? classesDirectory : outputDirectory;
+    }
+
+    void announceSourceFilesToOtherPlugins() {
+        if (outputFormat == OutputFormat.SOURCE)
+            project.addCompileSourceRoot(outputDirectory.getAbsolutePath());
+    }
+}
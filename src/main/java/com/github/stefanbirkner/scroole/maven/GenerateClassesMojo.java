@@ -1,58 +1,143 @@
 package com.github.stefanbirkner.scroole.maven;
 
+import com.github.stefanbirkner.scroole.GenerationException;
+import com.github.stefanbirkner.scroole.GenerationReport;
 import com.github.stefanbirkner.scroole.Scroole;
-import org.apache.maven.plugin.AbstractMojo;
+import com.github.stefanbirkner.scroole.model.Diagnostic;
+import com.github.stefanbirkner.scroole.model.InvalidScrooleCodeException;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
-import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.Scanner;
+import org.sonatype.plexus.build.incremental.BuildContext;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
+import static org.apache.commons.io.FileUtils.write;
 import static org.apache.maven.plugins.annotations.LifecyclePhase.GENERATE_SOURCES;
+import static org.sonatype.plexus.build.incremental.BuildContext.SEVERITY_ERROR;
 
 /**
- * Creates Java source files using the Scroole code generator.
+ * Creates Java source files using the Scroole code generator. The goal is
+ * thread-safe and can be used by parallel builds ({@code mvn -T}).
  */
 @Mojo(name = "generate", defaultPhase = GENERATE_SOURCES,
-        requiresProject = true)
-public class   GenerateClassesMojo extends AbstractMojo {
+        requiresProject = true, threadSafe = true)
+public class   GenerateClassesMojo extends AbstractScrooleMojo {
     /**
-     * Location of the Java source files.
+     * Write a JSON report with the statistics of the run to the
+     * {@code reportFile}.
      */
-    @Parameter(
-            defaultValue = "${project.build.directory}/generated-sources/scroole/",
-            required = true)
-    private File outputDirectory;
+    @Parameter(property = "scroole.report", defaultValue = "false")
+    private boolean report;
 
     /**
-     * Location of the Scroole files.
+     * Location of the JSON report.
      */
-    @Parameter(defaultValue = "src/main/java/", required = true)
-    private File sourceDirectory;
+    @Parameter(property = "scroole.reportFile",
+            defaultValue = "${project.build.directory}/scroole-report.json")
+    private File reportFile;
 
-    @Parameter(defaultValue = "${project}", required = true, readonly = true)
-    private MavenProject project;
+    @Component
+    BuildContext buildContext;
 
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
-        createSourceFiles();
+        if (buildContext.isIncremental())
+            createSourceFilesForChangedScrooleFiles();
+        else
+            createSourceFiles(null);
         announceSourceFilesToOtherPlugins();
     }
 
-    private void createSourceFiles() throws MojoExecutionException {
+    //Scroole deletes the Java files of the deleted Scroole files, too.
+    private void createSourceFilesForChangedScrooleFiles()
+            throws MojoExecutionException {
+        List<File> changedFiles = getChangedScrooleFiles();
+        if (changedFiles.isEmpty())
+            getLog().debug("No Scroole file changed.");
+        else {
+            for (File file : changedFiles)
+                buildContext.removeMessages(file);
+            createSourceFiles(changedFiles);
+        }
+    }
+
+    private List<File> getChangedScrooleFiles() {
+        List<File> files = new ArrayList<>();
+        addScrooleFiles(files, buildContext.newScanner(sourceDirectory));
+        addScrooleFiles(files, buildContext.newDeleteScanner(sourceDirectory));
+        return files;
+    }
+
+    private void addScrooleFiles(List<File> files, Scanner scanner) {
+        scanner.setIncludes(getIncludes());
+        scanner.setExcludes(excludes);
+        scanner.scan();
+        for (String file : scanner.getIncludedFiles())
+            files.add(new File(scanner.getBasedir(), file));
+    }
+
+    //Generates all Java files if changedFiles is null.
+    private void createSourceFiles(List<File> changedFiles)
+            throws MojoExecutionException {
+        Scroole scroole = null;
         try {
-            Scroole scroole = new Scroole(sourceDirectory, outputDirectory);
-            scroole.generateFiles();
+            scroole = createScroole();
+            if (changedFiles == null)
+                scroole.generateFiles();
+            else
+                scroole.generateFiles(changedFiles);
+        } catch (GenerationException e) {
+            addMessages(e);
+            throw new MojoExecutionException("Could not generate source files.",
+                    e);
         } catch (IOException e) {
             throw new MojoExecutionException("Could not generate source files.",
                     e);
+        } finally {
+            buildContext.refresh(getOutputDirectory());
+            if (scroole != null && scroole.getReport() != null)
+                report(scroole.getReport());
         }
     }
 
-    private void announceSourceFilesToOtherPlugins() {
-        project.addCompileSourceRoot(outputDirectory.getAbsolutePath());
+    private void report(GenerationReport generationReport) {
+        for (String line : generationReport.getSummary())
+            getLog().info(line);
+        if (report)
+            writeReport(generationReport);
+    }
+
+    //a missing report must not fail the build
+    private void writeReport(GenerationReport generationReport) {
+        try {
+            write(reportFile, generationReport.toJson(), "UTF-8");
+        } catch (IOException e) {
+            getLog().warn("Could not write the report " + reportFile + ".", e);
+        }
+    }
+
+    private void addMessages(GenerationException e) {
+        for (Map.Entry<File, Throwable> failure : e.getFailures().entrySet())
+            if (failure.getValue() instanceof InvalidScrooleCodeException)
+                addMessages(failure.getKey(),
+                        (InvalidScrooleCodeException) failure.getValue());
+            else
+                buildContext.addMessage(failure.getKey(), 0, 0,
+                        String.valueOf(failure.getValue().getMessage()),
+                        SEVERITY_ERROR, failure.getValue());
+    }
+
+    private void addMessages(File file, InvalidScrooleCodeException e) {
+        for (Diagnostic diagnostic : e.getDiagnostics())
+            buildContext.addMessage(file, diagnostic.line, diagnostic.column,
+                    diagnostic.message, SEVERITY_ERROR, null);
     }
 }
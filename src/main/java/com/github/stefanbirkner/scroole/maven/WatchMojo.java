@@ -0,0 +1,68 @@
+package com.github.stefanbirkner.scroole.maven;
+
+import com.github.stefanbirkner.scroole.GenerationException;
+import com.github.stefanbirkner.scroole.GenerationReport;
+import com.github.stefanbirkner.scroole.ScrooleWatcher;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Watches the Scroole files and regenerates the Java source files as soon
+ * as a Scroole file changes. The goal runs until Maven is stopped (e.g. by
+ * Ctrl+C).
+ * <pre>
+ * mvn scroole:watch
+ * </pre>
+ */
+@Mojo(name = "watch", requiresProject = true)
+public class WatchMojo extends AbstractScrooleMojo {
+    /**
+     * Time in milliseconds without any change to the Scroole files that
+     * the watcher waits before it regenerates the Java files.
+     */
+    @Parameter(property = "scroole.debounceTime", defaultValue = "100")
+    private long debounceTime;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        announceSourceFilesToOtherPlugins();
+        try (ScrooleWatcher watcher = new ScrooleWatcher(createScroole())) {
+            watcher.setDebounceTime(debounceTime);
+            watcher.setListener(new LoggingListener());
+            getLog().info("Watching the Scroole files in " + sourceDirectory
+                    + ". Press Ctrl+C to stop.");
+            watcher.run();
+        } catch (IOException e) {
+            throw new MojoExecutionException(
+                    "Could not watch the Scroole files.", e);
+        }
+    }
+
+    private class LoggingListener implements ScrooleWatcher.Listener {
+        @Override
+        public void generated(GenerationReport report) {
+            getLog().info(report.getSummary().get(0));
+        }
+
+        @Override
+        public void failed(IOException e) {
+            if (e instanceof GenerationException)
+                logFailures((GenerationException) e);
+            else
+                getLog().error("Could not generate source files.", e);
+        }
+
+        private void logFailures(GenerationException e) {
+            for (Map.Entry<File, Throwable> failure
+                    : e.getFailures().entrySet())
+                getLog().error(failure.getKey() + ": "
+                        + failure.getValue().getMessage());
+        }
+    }
+}
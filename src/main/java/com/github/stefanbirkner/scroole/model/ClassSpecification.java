@@ -1,6 +1,8 @@
 package com.github.stefanbirkner.scroole.model;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Specification of a class for value objects. This model stores all
@@ -27,19 +29,42 @@ public class ClassSpecification {
      */
     public final List<Field> fields;
 
+    /**
+     * Options that change the generated code (e.g. {@code hashCode} with
+     * the value {@code lazy}). The option's name is the key and the
+     * option's value is the value.
+     */
+    public final Map<String, String> options;
+
     /**
      * Create the specification for a class inside a package.
      * @param packageName the class' package.
      * @param simpleName the class' name.
      * @param javadoc the class' Javadoc.
      * @param fields specications of the class' fields.
+     * @param options the options of the generated code.
      */
     public ClassSpecification(String packageName, String simpleName,
-            String javadoc, List<Field> fields) {
+            String javadoc, List<Field> fields, Map<String, String> options) {
         this.packageName = packageName;
         this.simpleName = simpleName;
         this.javadoc = javadoc;
         this.fields = fields;
+        this.options = options;
+    }
+
+    /**
+     * Create the specification for a class inside a package without
+     * options.
+     * @param packageName the class' package.
+     * @param simpleName the class' name.
+     * @param javadoc the class' Javadoc.
+     * @param fields specications of the class' fields.
+     */
+    public ClassSpecification(String packageName, String simpleName,
+            String javadoc, List<Field> fields) {
+        this(packageName, simpleName, javadoc, fields,
+                Collections.<String, String>emptyMap());
     }
 
     /**
@@ -54,6 +79,15 @@ public class ClassSpecification {
         this("", simpleName, javadoc, fields);
     }
 
+    /**
+     * Returns the value of an option.
+     * @param name the option's name.
+     * @return the option's value or {@code null} if the option is not set.
+     */
+    public String getOption(String name) {
+        return options.get(name);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -69,6 +103,8 @@ public class ClassSpecification {
             return false;
         if (simpleName != null ? !simpleName.equals(that.simpleName) : that.simpleName != null)
             return false;
+        if (options != null ? !options.equals(that.options) : that.options != null)
+            return false;
 
         return true;
     }
@@ -79,6 +115,7 @@ public class ClassSpecification {
         result = 31 * result + (simpleName != null ? simpleName.hashCode() : 0);
         result = 31 * result + (javadoc != null ? javadoc.hashCode() : 0);
         result = 31 * result + (fields != null ? fields.hashCode() : 0);
+        result = 31 * result + (options != null ? options.hashCode() : 0);
         return result;
     }
 
@@ -89,6 +126,7 @@ public class ClassSpecification {
                 ", simpleName='" + simpleName + '\'' +
                 ", javadoc='" + javadoc + '\'' +
                 ", fields=" + fields +
+                ", options=" + options +
                 '}';
     }
 }
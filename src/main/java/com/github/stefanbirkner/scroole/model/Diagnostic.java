@@ -0,0 +1,63 @@
+package com.github.stefanbirkner.scroole.model;
+
+/**
+ * A problem of Scroole code together with its position.
+ */
+public class Diagnostic {
+    /**
+     * The line of the problem (starting with 1).
+     */
+    public final int line;
+
+    /**
+     * The column of the problem (starting with 1).
+     */
+    public final int column;
+
+    /**
+     * A description of the problem.
+     */
+    public final String message;
+
+    /**
+     * Creates a diagnostic.
+     * @param line the line of the problem (starting with 1).
+     * @param column the column of the problem (starting with 1).
+     * @param message a description of the problem.
+     */
+    public Diagnostic(int line, int column, String message) {
+        this.line = line;
+        this.column = column;
+        this.message = message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Diagnostic that = (Diagnostic) o;
+
+        if (line != that.line)
+            return false;
+        if (column != that.column)
+            return false;
+        if (message != null ? !message.equals(that.message) : that.message != null)
+            return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = line;
+        result = 31 * result + column;
+        result = 31 * result + (message != null ? message.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "line " + line + ", column " + column + ": " + message;
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.stefanbirkner.scroole.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Thrown by the {@link Parser} if Scroole code has syntax errors. It
+ * provides all problems of the Scroole code and not only the first one.
+ */
+public class InvalidScrooleCodeException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+    private final List<Diagnostic> diagnostics;
+
+    /**
+     * Creates an exception for the problems of a class' Scroole code.
+     * @param canonicalName the canonical name of the class.
+     * @param diagnostics the problems of the Scroole code.
+     */
+    public InvalidScrooleCodeException(String canonicalName,
+            List<Diagnostic> diagnostics) {
+        super(createMessage(canonicalName, diagnostics));
+        this.diagnostics = Collections.unmodifiableList(
+                new ArrayList<>(diagnostics));
+    }
+
+    private static String createMessage(String canonicalName,
+            List<Diagnostic> diagnostics) {
+        StringBuilder message = new StringBuilder(
+                "The Scroole code of " + canonicalName + " is invalid:");
+        for (Diagnostic diagnostic : diagnostics)
+            message.append("\n  ").append(diagnostic);
+        return message.toString();
+    }
+
+    /**
+     * Returns the problems of the Scroole code.
+     *
+     * @return the problems of the Scroole code.
+     */
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+}
@@ -0,0 +1,236 @@
+package com.github.stefanbirkner.scroole.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.Character.isJavaIdentifierPart;
+import static java.lang.Character.isJavaIdentifierStart;
+
+/**
+ * Splits Scroole code into separators, comments, options and fields. The
+ * lexer reads the code character by character in a single pass. It does
+ * not stop at the first problem but collects all of them.
+ */
+class Lexer {
+    private static final int BUFFER_SIZE = 8192;
+    private final Reader reader;
+    private final Handler handler;
+    private final List<Diagnostic> diagnostics = new ArrayList<>();
+    private char[] line = new char[128];
+    private int lineLength = 0;
+    private int lineNumber = 0;
+
+    Lexer(Reader reader, Handler handler) {
+        this.reader = reader;
+        this.handler = handler;
+    }
+
+    /**
+     * Reads the whole Scroole code and reports its tokens to the handler.
+     *
+     * @return the problems of the Scroole code. The list is empty if the
+     * code is valid.
+     * @throws IOException if the code cannot be read.
+     */
+    List<Diagnostic> run() throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        boolean afterCarriageReturn = false;
+        int length;
+        while ((length = reader.read(buffer)) != -1)
+            for (int i = 0; i < length; ++i) {
+                char c = buffer[i];
+                if (c == '\n') {
+                    if (!afterCarriageReturn)
+                        endOfLine();
+                    afterCarriageReturn = false;
+                } else if (c == '\r') {
+                    endOfLine();
+                    afterCarriageReturn = true;
+                } else {
+                    append(c);
+                    afterCarriageReturn = false;
+                }
+            }
+        if (lineLength != 0)
+            endOfLine();
+        return diagnostics;
+    }
+
+    private void append(char c) {
+        if (lineLength == line.length) {
+            char[] biggerLine = new char[2 * line.length];
+            System.arraycopy(line, 0, biggerLine, 0, lineLength);
+            line = biggerLine;
+        }
+        line[lineLength++] = c;
+    }
+
+    private void endOfLine() {
+        ++lineNumber;
+        int start = skipWhitespace(0);
+        if (start == lineLength)
+            handler.separator();
+        else if (line[0] == '#')
+            comment();
+        else if (line[start] == '@')
+            option(start);
+        else
+            field(start);
+        lineLength = 0;
+    }
+
+    private void comment() {
+        //skip # symbol and following whitespace separator
+        int start = lineLength > 1 && line[1] == ' ' ? 2 : 1;
+        handler.comment(line, start, lineLength - start);
+    }
+
+    private void option(int start) {
+        int nameStart = start + 1;
+        int nameEnd = nameStart;
+        while (nameEnd < lineLength && line[nameEnd] > ' ')
+            ++nameEnd;
+        int valueStart = skipWhitespace(nameEnd);
+        int valueEnd = skipTrailingWhitespace(valueStart, lineLength);
+        String name = new String(line, nameStart, nameEnd - nameStart);
+        String value = new String(line, valueStart, valueEnd - valueStart);
+        if (validateOption(name, value, start, valueStart))
+            handler.option(name, value, lineNumber);
+    }
+
+    private boolean validateOption(String name, String value, int start,
+            int valueStart) {
+        switch (name) {
+            case "hashCode":
+                if (value.equals("lazy") || value.equals("eager"))
+                    return true;
+                else
+                    return error(valueStart,
+                            "Expected 'lazy' or 'eager' after @hashCode.");
+            case "intern":
+                if (value.isEmpty())
+                    return true;
+                else
+                    return error(valueStart,
+                            "Unexpected value after @intern.");
+            case "mutable":
+                if (value.isEmpty())
+                    return true;
+                else
+                    return error(valueStart,
+                            "Unexpected value after @mutable.");
+            case "flyweight":
+                return validateRange(value, valueStart);
+            default:
+                return error(start, "Unknown option @" + name + ".");
+        }
+    }
+
+    private boolean validateRange(String value, int start) {
+        if (!value.matches("-?\\d{1,10}\\.\\.-?\\d{1,10}"))
+            return error(start,
+                    "Expected a range like 0..127 after @flyweight.");
+        int separator = value.indexOf("..");
+        long minimum = Long.parseLong(value.substring(0, separator));
+        long maximum = Long.parseLong(value.substring(separator + 2));
+        if (minimum < Integer.MIN_VALUE || maximum > Integer.MAX_VALUE)
+            return error(start, "The range exceeds the values of an int.");
+        else if (minimum > maximum)
+            return error(start, "The range's minimum is bigger than its"
+                    + " maximum.");
+        else
+            return true;
+    }
+
+    private void field(int nameStart) {
+        int colon = indexOfColon(nameStart);
+        if (colon == -1) {
+            error(nameStart, "Expected ':' between field name and type.");
+            return;
+        }
+        int nameEnd = skipTrailingWhitespace(nameStart, colon);
+        int typeStart = skipWhitespace(colon + 1);
+        int typeEnd = skipTrailingWhitespace(typeStart, lineLength);
+        boolean valid = validateName(nameStart, nameEnd, colon);
+        valid &= validateType(typeStart, typeEnd, colon);
+        if (valid)
+            handler.field(
+                    new String(line, nameStart, nameEnd - nameStart),
+                    new String(line, typeStart, typeEnd - typeStart));
+    }
+
+    private boolean validateName(int start, int end, int colon) {
+        if (start == end)
+            return error(colon, "Missing field name before ':'.");
+        if (!isJavaIdentifierStart(line[start]))
+            return error(start, "Invalid field name.");
+        for (int i = start + 1; i < end; ++i)
+            if (!isJavaIdentifierPart(line[i]))
+                return error(i, "Invalid field name.");
+        return true;
+    }
+
+    private boolean validateType(int start, int end, int colon) {
+        if (start == end)
+            return error(colon, "Missing type after ':'.");
+        for (int i = start; i < end; ++i)
+            if (line[i] == ':')
+                return error(i, "Unexpected ':' in type.");
+        return true;
+    }
+
+    private boolean error(int index, String message) {
+        diagnostics.add(new Diagnostic(lineNumber, index + 1, message));
+        return false;
+    }
+
+    private int indexOfColon(int start) {
+        for (int i = start; i < lineLength; ++i)
+            if (line[i] == ':')
+                return i;
+        return -1;
+    }
+
+    //Same definition of whitespace as String.trim()
+    private int skipWhitespace(int start) {
+        int i = start;
+        while (i < lineLength && line[i] <= ' ')
+            ++i;
+        return i;
+    }
+
+    private int skipTrailingWhitespace(int start, int end) {
+        int i = end;
+        while (i > start && line[i - 1] <= ' ')
+            --i;
+        return i;
+    }
+
+    /**
+     * Receives the tokens of Scroole code.
+     */
+    interface Handler {
+        /**
+         * Called for an empty line.
+         */
+        void separator();
+
+        /**
+         * Called for a comment line. The characters are only valid during
+         * this call.
+         */
+        void comment(char[] text, int offset, int length);
+
+        /**
+         * Called for a valid option line.
+         */
+        void option(String name, String value, int line);
+
+        /**
+         * Called for a valid field line.
+         */
+        void field(String name, String type);
+    }
+}
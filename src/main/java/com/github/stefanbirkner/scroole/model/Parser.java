@@ -1,30 +1,93 @@
 package com.github.stefanbirkner.scroole.model;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import static org.apache.commons.lang3.StringUtils.substringAfter;
 import static org.apache.commons.lang3.StringUtils.substringAfterLast;
+import static org.apache.commons.lang3.StringUtils.substringBefore;
 import static org.apache.commons.lang3.StringUtils.substringBeforeLast;
 
 /**
  * Creates a {@link ClassSpecification} from Scroole code.
+ * <p>A parser has no state and is thread-safe. Every call of
+ * {@code parse} uses its own lexer.
  */
 public class Parser {
+    //the values of the types that are supported by the option @flyweight
+    private static final Map<String, long[]> FLYWEIGHT_TYPES
+            = new HashMap<String, long[]>() {{
+                put("byte", new long[]{Byte.MIN_VALUE, Byte.MAX_VALUE});
+                put("short", new long[]{Short.MIN_VALUE, Short.MAX_VALUE});
+                put("char", new long[]{Character.MIN_VALUE,
+                        Character.MAX_VALUE});
+                put("int", new long[]{Integer.MIN_VALUE, Integer.MAX_VALUE});
+                put("long", new long[]{Long.MIN_VALUE, Long.MAX_VALUE});
+            }};
+    private static final long MAXIMUM_FLYWEIGHTS = 65536;
+
     /**
      * Create a {@link ClassSpecification} from Scroole code.
      *
      * @param canonicalName the canonical name of the class.
      * @param scrooleCode   the class' Scroole code.
      * @return the {@link ClassSpecification} defined by the Scroole code.
+     * @throws InvalidScrooleCodeException if the Scroole code has errors.
      */
     public ClassSpecification parse(String canonicalName, String scrooleCode) {
+        try {
+            return parse(canonicalName, new StringReader(scrooleCode));
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    "A StringReader must not throw an IOException.", e);
+        }
+    }
+
+    /**
+     * Create a {@link ClassSpecification} from Scroole code that is read
+     * line by line from a {@code Reader}. The reader is not closed.
+     *
+     * @param canonicalName the canonical name of the class.
+     * @param scrooleCode   a reader that provides the class' Scroole code.
+     * @return the {@link ClassSpecification} defined by the Scroole code.
+     * @throws InvalidScrooleCodeException if the Scroole code has errors.
+     * @throws IOException if the Scroole code cannot be read.
+     */
+    public ClassSpecification parse(String canonicalName, Reader scrooleCode)
+            throws IOException {
         ClassModelBuilder builder = new ClassModelBuilder();
         builder.setPackageName(getPackageForCanonicalName(canonicalName));
         builder.setSimpleName(getSimpleNameForCanonicalName(canonicalName));
-        parseScrooleCode(scrooleCode, builder);
+        parseScrooleCode(canonicalName, scrooleCode, builder);
         return builder.toClassModel();
     }
 
+    /**
+     * Create a {@link ClassSpecification} from Scroole code that is read
+     * line by line from a channel. The channel is not closed.
+     *
+     * @param canonicalName the canonical name of the class.
+     * @param scrooleCode   a channel that provides the class' Scroole code.
+     * @param charset       the encoding of the Scroole code.
+     * @return the {@link ClassSpecification} defined by the Scroole code.
+     * @throws InvalidScrooleCodeException if the Scroole code has errors.
+     * @throws IOException if the Scroole code cannot be read.
+     */
+    public ClassSpecification parse(String canonicalName,
+            ReadableByteChannel scrooleCode, Charset charset)
+            throws IOException {
+        return parse(canonicalName,
+                Channels.newReader(scrooleCode, charset.newDecoder(), -1));
+    }
+
     private String getPackageForCanonicalName(String canonicalName) {
         if (isClassWithPackage(canonicalName))
             return substringBeforeLast(canonicalName, ".");
@@ -43,58 +106,82 @@ public class Parser {
         return canonicalName.contains(".");
     }
 
-    private void parseScrooleCode(String scrooleCode,
-            ClassModelBuilder builder) {
+    private void parseScrooleCode(String canonicalName, Reader scrooleCode,
+            ClassModelBuilder builder) throws IOException {
         EventHandler handler = new EventHandler(builder);
-        for (String line : scrooleCode.split("\n"))
-            handler.line(line);
+        List<Diagnostic> diagnostics = new Lexer(scrooleCode, handler).run();
+        if (handler.flyweightLine != 0)
+            validateFlyweight(builder, handler.flyweightLine, diagnostics);
+        if (!diagnostics.isEmpty())
+            throw new InvalidScrooleCodeException(canonicalName, diagnostics);
+    }
+
+    //All fields must be small enough for a table of their values.
+    private void validateFlyweight(ClassModelBuilder builder, int line,
+            List<Diagnostic> diagnostics) {
+        String range = builder.options.get("flyweight");
+        long minimum = Long.parseLong(substringBefore(range, ".."));
+        long maximum = Long.parseLong(substringAfter(range, ".."));
+        long size = 1;
+        for (Field field : builder.fields) {
+            long[] values = FLYWEIGHT_TYPES.get(field.type);
+            if (values == null)
+                diagnostics.add(new Diagnostic(line, 1, "@flyweight needs"
+                        + " fields of type byte, short, char, int or long"
+                        + " but " + field.name + " is " + field.type + "."));
+            else if (minimum < values[0] || maximum > values[1])
+                diagnostics.add(new Diagnostic(line, 1, "The range of"
+                        + " @flyweight exceeds the values of " + field.name
+                        + "."));
+            size = Math.min(size * (maximum - minimum + 1),
+                    MAXIMUM_FLYWEIGHTS + 1);
+        }
+        if (size > MAXIMUM_FLYWEIGHTS)
+            diagnostics.add(new Diagnostic(line, 1, "@flyweight would create"
+                    + " more than " + MAXIMUM_FLYWEIGHTS + " objects."));
     }
 
-    private static class EventHandler {
+    private static class EventHandler implements Lexer.Handler {
         ClassModelBuilder builder;
         boolean classCommentSet = false;
+        int flyweightLine = 0;
         StringBuilder comment = new StringBuilder();
 
         EventHandler(ClassModelBuilder builder) {
             this.builder = builder;
         }
 
-        void line(String line) {
-            if (line.trim().isEmpty())
-                handleSeparator();
-            else if (line.startsWith("#"))
-                handleCommentLine(line);
-            else
-                handleFieldLine(line);
-        }
-
-        private void handleSeparator() {
+        @Override
+        public void separator() {
             if (!classCommentSet)
                 builder.setJavadoc(comment.toString());
             classCommentSet = true;
             clearComment();
         }
 
-        private void handleCommentLine(String line) {
+        @Override
+        public void comment(char[] text, int offset, int length) {
             if (comment.length() != 0) {
                 comment.append("\n");
             }
-            //skip # symbol and following whitespace separator
-            String lineOfComment = line.startsWith("# ") ? line.substring(2)
-                    : line.substring(1);
-            comment.append(lineOfComment);
+            comment.append(text, offset, length);
+        }
+
+        @Override
+        public void option(String name, String value, int line) {
+            builder.setOption(name, value);
+            if (name.equals("flyweight"))
+                flyweightLine = line;
         }
 
-        void handleFieldLine(String line) {
-            String[] nameAndType = line.split(":");
-            Field field = new Field(nameAndType[0].trim(),
-                    nameAndType[1].trim(), comment.toString());
-            builder.addField(field);
+        @Override
+        public void field(String name, String type) {
+            builder.addField(new Field(name, type, comment.toString()));
             clearComment();
         }
 
         private void clearComment() {
-            comment = new StringBuilder();
+            comment.setLength(0);
         }
     }
 
@@ -103,6 +190,7 @@ public class Parser {
         String simpleName;
         String javadoc = "";
         List<Field> fields = new ArrayList<>();
+        Map<String, String> options = new HashMap<>();
 
         void setPackageName(String packageName) {
             this.packageName = packageName;
@@ -120,9 +208,13 @@ public class Parser {
             fields.add(field);
         }
 
+        void setOption(String name, String value) {
+            options.put(name, value);
+        }
+
         ClassSpecification toClassModel() {
             return new ClassSpecification(
-                    packageName, simpleName, javadoc, fields);
+                    packageName, simpleName, javadoc, fields, options);
         }
     }
 }
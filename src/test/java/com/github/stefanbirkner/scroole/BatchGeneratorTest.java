@@ -0,0 +1,108 @@
+package com.github.stefanbirkner.scroole;
+
+import com.github.stefanbirkner.scroole.model.InvalidScrooleCodeException;
+import com.github.stefanbirkner.scroole.model.Parser;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class BatchGeneratorTest {
+    private static final String[] TYPES = {"String", "int", "long[]",
+            "java.util.List<String>", "java.util.Map<String, Long>"};
+
+    private final BatchGenerator generator = new BatchGenerator();
+
+    @Test
+    public void creates_same_code_like_the_code_generator() {
+        Map<String, String> scrooleCodes = createScrooleCodes(20);
+        Map<String, String> javaCodes = generator.generate(scrooleCodes);
+        for (Map.Entry<String, String> scrooleCode : scrooleCodes.entrySet())
+            assertThat(javaCodes.get(scrooleCode.getKey()))
+                    .isEqualTo(createCode(scrooleCode.getKey(),
+                            scrooleCode.getValue()));
+    }
+
+    @Test
+    public void provides_code_in_order_of_scroole_codes() {
+        Map<String, String> scrooleCodes = createScrooleCodes(20);
+        Map<String, String> javaCodes = generator.generate(scrooleCodes);
+        assertThat(new ArrayList<>(javaCodes.keySet()))
+                .isEqualTo(new ArrayList<>(scrooleCodes.keySet()));
+    }
+
+    @Test
+    public void creates_same_code_with_multiple_threads() {
+        Map<String, String> scrooleCodes = createScrooleCodes(200);
+        Map<String, String> expectedJavaCodes = generator.generate(
+                scrooleCodes);
+        BatchGenerator parallelGenerator = new BatchGenerator();
+        parallelGenerator.setThreads(4);
+        assertThat(new ArrayList<>(parallelGenerator.generate(scrooleCodes)
+                .entrySet()))
+                .isEqualTo(new ArrayList<>(expectedJavaCodes.entrySet()));
+    }
+
+    @Test
+    public void reports_every_class_that_cannot_be_generated() {
+        Map<String, String> scrooleCodes = createScrooleCodes(3);
+        scrooleCodes.put("a.Broken1", "no type");
+        scrooleCodes.put("a.Broken2", "no type");
+        try {
+            generator.generate(scrooleCodes);
+            fail("BatchGenerationException expected.");
+        } catch (BatchGenerationException e) {
+            assertThat(e.getFailures().keySet())
+                    .containsExactly("a.Broken1", "a.Broken2");
+            assertThat(e.getFailures().get("a.Broken1"))
+                    .isInstanceOf(InvalidScrooleCodeException.class);
+        }
+    }
+
+    @Test
+    public void streams_code_to_listener_in_order_of_scroole_codes() {
+        Map<String, String> scrooleCodes = createScrooleCodes(100);
+        scrooleCodes.put("a.Broken", "no type");
+        final List<String> events = new ArrayList<>();
+        generator.setThreads(3);
+        generator.generate(scrooleCodes, new BatchGenerator.Listener() {
+            @Override
+            public void generated(String canonicalName, String javaCode) {
+                events.add(canonicalName);
+            }
+
+            @Override
+            public void failed(String canonicalName, RuntimeException e) {
+                events.add("failed " + canonicalName);
+            }
+        });
+        List<String> expectedEvents = new ArrayList<>();
+        for (int i = 0; i < 100; ++i)
+            expectedEvents.add("a.Class" + i);
+        expectedEvents.add("failed a.Broken");
+        assertThat(events).isEqualTo(expectedEvents);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannot_use_zero_threads() {
+        generator.setThreads(0);
+    }
+
+    private Map<String, String> createScrooleCodes(int number) {
+        Map<String, String> scrooleCodes = new LinkedHashMap<>();
+        for (int i = 0; i < number; ++i)
+            scrooleCodes.put("a.Class" + i,
+                    "field: " + TYPES[i % TYPES.length] + "\nnumber: int");
+        return scrooleCodes;
+    }
+
+    private String createCode(String canonicalName, String scrooleCode) {
+        return new CodeGenerator().createCode(
+                new Parser().parse(canonicalName, scrooleCode));
+    }
+}
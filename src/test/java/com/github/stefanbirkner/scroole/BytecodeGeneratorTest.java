@@ -0,0 +1,236 @@
+package com.github.stefanbirkner.scroole;
+
+import com.github.stefanbirkner.scroole.model.ClassSpecification;
+import com.github.stefanbirkner.scroole.model.Field;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.apache.commons.io.FileUtils.write;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the class that is created by the {@link BytecodeGenerator}
+ * has the same members and behaves like the class that is compiled from
+ * the code of the {@link CodeGenerator}.
+ */
+@RunWith(Parameterized.class)
+public class BytecodeGeneratorTest {
+    private static final String NO_JAVADOC = "";
+    private static final Map<String, String> NO_OPTIONS = emptyMap();
+
+    @ClassRule
+    public static final TemporaryFolder FOLDER = new TemporaryFolder();
+
+    private static final Object[][] FIELDS = {
+            //name, type, a value, another value
+            {"flag", "boolean", true, false},
+            {"b", "byte", (byte) 1, (byte) -1},
+            {"s", "short", (short) 2, (short) 0},
+            {"c", "char", 'c', '\0'},
+            {"i", "int", 4, Integer.MIN_VALUE},
+            {"l", "long", 5L, Long.MAX_VALUE},
+            {"f", "float", 6f, -0f},
+            {"d", "double", 7d, Double.NaN},
+            {"text", "java.lang.String", "text", null},
+            {"number", "java.lang.Long", 8L, null},
+            {"list", "java.util.List<java.lang.String>", asList("a", "b"), null},
+            {"map",
+                    "java.util.Map<java.lang.Long, java.util.List<java.lang.String>>",
+                    new HashMap<Long, List<String>>(), null},
+            {"ints", "int[]", new int[]{1, 2}, null},
+            {"strings", "java.lang.String[]", new String[]{"a"}, new String[0]},
+            {"matrix", "int[][]", new int[][]{{1}}, null}};
+
+    private static int classCounter = 0;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<Object[]> data() {
+        List<Object[]> data = new ArrayList<>();
+        for (Object[] field : FIELDS)
+            data.add(new Object[]{field[1], singletonList(field), NO_OPTIONS});
+        data.add(new Object[]{"all fields", asList(FIELDS), NO_OPTIONS});
+        data.add(new Object[]{"lazily cached hash code", asList(FIELDS),
+                singletonMap("hashCode", "lazy")});
+        data.add(new Object[]{"eagerly cached hash code", asList(FIELDS),
+                singletonMap("hashCode", "eager")});
+        data.add(new Object[]{"interned", asList(FIELDS),
+                singletonMap("intern", "")});
+        data.add(new Object[]{"flyweights",
+                asList(FIELDS[1], FIELDS[2], FIELDS[4], FIELDS[5]),
+                singletonMap("flyweight", "-1..5")});
+        return data;
+    }
+
+    @Parameterized.Parameter(0)
+    public String name;
+
+    @Parameterized.Parameter(1)
+    public List<Object[]> fields;
+
+    @Parameterized.Parameter(2)
+    public Map<String, String> options;
+
+    private static JavaCompiler compiler;
+
+    @BeforeClass
+    public static void getCompiler() {
+        compiler = ToolProvider.getSystemJavaCompiler();
+    }
+
+    @Test
+    public void creates_class_with_same_members() throws Exception {
+        ClassSpecification specification = createSpecification();
+        assertThat(describe(createBytecodeClass(specification)))
+                .isEqualTo(describe(compileSourceCode(specification)));
+    }
+
+    @Test
+    public void creates_class_with_same_behaviour() throws Exception {
+        ClassSpecification specification = createSpecification();
+        Class<?> bytecodeClass = createBytecodeClass(specification);
+        Class<?> sourceClass = compileSourceCode(specification);
+        for (Object[] values : createValues())
+            for (Object[] otherValues : createValues())
+                assertSameBehaviour(
+                        bytecodeClass, sourceClass, values, otherValues);
+    }
+
+    private void assertSameBehaviour(Class<?> bytecodeClass,
+            Class<?> sourceClass, Object[] values, Object[] otherValues)
+            throws Exception {
+        Object bytecodeObject = newInstance(bytecodeClass, values);
+        Object otherBytecodeObject = newInstance(bytecodeClass, otherValues);
+        Object sourceObject = newInstance(sourceClass, values);
+        Object otherSourceObject = newInstance(sourceClass, otherValues);
+        assertThat(bytecodeObject.hashCode())
+                .isEqualTo(sourceObject.hashCode());
+        assertThat(bytecodeObject.equals(otherBytecodeObject))
+                .isEqualTo(sourceObject.equals(otherSourceObject));
+        assertThat(bytecodeObject.equals(bytecodeObject)).isTrue();
+        assertThat(bytecodeObject.equals(null)).isFalse();
+        assertThat(bytecodeObject.equals(sourceObject)).isFalse();
+        if (options.containsKey("intern"))
+            assertThat(callFactory(bytecodeClass, "of", values))
+                    .isSameAs(callFactory(bytecodeClass, "of", values))
+                    .isEqualTo(bytecodeObject);
+        if (options.containsKey("flyweight")) {
+            assertThat(callFactory(bytecodeClass, "valueOf", values))
+                    .isEqualTo(bytecodeObject);
+            assertThat(callFactory(sourceClass, "valueOf", values))
+                    .isEqualTo(sourceObject);
+        }
+        for (Method getter : sourceClass.getDeclaredMethods())
+            if (getter.getName().startsWith("get"))
+                assertThat(Arrays.deepEquals(
+                        new Object[]{getter.invoke(sourceObject)},
+                        new Object[]{bytecodeClass.getMethod(getter.getName())
+                                .invoke(bytecodeObject)})).isTrue();
+    }
+
+    //Every combination of the fields' values (a value for the first field
+    //and another value for all others, ...).
+    private List<Object[]> createValues() {
+        List<Object[]> values = new ArrayList<>();
+        for (int i = 0; i <= fields.size(); ++i) {
+            Object[] combination = new Object[fields.size()];
+            for (int j = 0; j < fields.size(); ++j)
+                combination[j] = fields.get(j)[j < i ? 2 : 3];
+            values.add(combination);
+        }
+        return values;
+    }
+
+    private Object newInstance(Class<?> type, Object[] values)
+            throws Exception {
+        return type.getConstructors()[0].newInstance(values);
+    }
+
+    private Object callFactory(Class<?> type, String name, Object[] values)
+            throws Exception {
+        Class<?>[] parameterTypes = type.getConstructors()[0]
+                .getParameterTypes();
+        return type.getMethod(name, parameterTypes).invoke(null, values);
+    }
+
+    private ClassSpecification createSpecification() {
+        List<Field> specificationFields = new ArrayList<>();
+        for (Object[] field : fields)
+            specificationFields.add(new Field(
+                    (String) field[0], (String) field[1], NO_JAVADOC));
+        //each class needs another name, because the compiled classes are
+        //stored in the same directory.
+        return new ClassSpecification("a.b", "Dummy" + (++classCounter),
+                NO_JAVADOC, specificationFields, options);
+    }
+
+    private Class<?> createBytecodeClass(ClassSpecification specification)
+            throws Exception {
+        final String className = specification.packageName + "."
+                + specification.simpleName;
+        final byte[] bytecode = new BytecodeGenerator()
+                .createBytecode(specification);
+        ClassLoader loader = new ClassLoader() {
+            @Override
+            protected Class<?> findClass(String name)
+                    throws ClassNotFoundException {
+                if (name.equals(className))
+                    return defineClass(name, bytecode, 0, bytecode.length);
+                else
+                    throw new ClassNotFoundException(name);
+            }
+        };
+        return loader.loadClass(className);
+    }
+
+    private Class<?> compileSourceCode(ClassSpecification specification)
+            throws Exception {
+        File directory = FOLDER.getRoot();
+        File javaFile = new File(directory, "a/b/"
+                + specification.simpleName + ".java");
+        write(javaFile, new CodeGenerator().createCode(specification));
+        int result = compiler.run(null, null, null, "-nowarn", "-d",
+                directory.getPath(), javaFile.getPath());
+        assertThat(result).isEqualTo(0);
+        ClassLoader loader = new URLClassLoader(
+                new URL[]{directory.toURI().toURL()}, null);
+        return loader.loadClass(specification.packageName + "."
+                + specification.simpleName);
+    }
+
+    private String describe(Class<?> type) {
+        Set<String> members = new TreeSet<>();
+        for (java.lang.reflect.Field field : type.getDeclaredFields())
+            members.add(Modifier.toString(field.getModifiers()) + " "
+                    + field.getGenericType() + " " + field.getName());
+        for (Constructor<?> constructor : type.getDeclaredConstructors())
+            members.add(constructor.toGenericString());
+        for (Method method : type.getDeclaredMethods())
+            members.add(method.toGenericString());
+        return Modifier.toString(type.getModifiers()) + " " + type.getName()
+                + " extends " + type.getGenericSuperclass() + " " + members;
+    }
+}
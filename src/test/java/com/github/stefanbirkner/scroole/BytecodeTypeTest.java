@@ -0,0 +1,90 @@
+package com.github.stefanbirkner.scroole;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.rules.ExpectedException.none;
+
+public class BytecodeTypeTest {
+    @Rule
+    public final ExpectedException thrown = none();
+
+    @Test
+    public void parses_primitive_type() {
+        BytecodeType type = BytecodeType.parse("long", "a.b");
+        assertThat(type.type.getDescriptor()).isEqualTo("J");
+        assertThat(type.signature).isNull();
+    }
+
+    @Test
+    public void parses_qualified_class_name() {
+        BytecodeType type = BytecodeType.parse("java.util.List", "a.b");
+        assertThat(type.type.getDescriptor()).isEqualTo("Ljava/util/List;");
+    }
+
+    @Test
+    public void resolves_simple_name_of_java_lang_class() {
+        BytecodeType type = BytecodeType.parse("String", "a.b");
+        assertThat(type.type.getDescriptor()).isEqualTo("Ljava/lang/String;");
+    }
+
+    @Test
+    public void resolves_other_simple_name_in_package_of_class() {
+        BytecodeType type = BytecodeType.parse("Item", "a.b");
+        assertThat(type.type.getDescriptor()).isEqualTo("La/b/Item;");
+    }
+
+    @Test
+    public void parses_nested_class() {
+        BytecodeType type = BytecodeType.parse("java.util.Map.Entry", "a.b");
+        assertThat(type.type.getDescriptor())
+                .isEqualTo("Ljava/util/Map$Entry;");
+    }
+
+    @Test
+    public void parses_arrays() {
+        BytecodeType type = BytecodeType.parse("int[] []", "a.b");
+        assertThat(type.type.getDescriptor()).isEqualTo("[[I");
+    }
+
+    @Test
+    public void parses_type_arguments() {
+        BytecodeType type = BytecodeType.parse(
+                "java.util.Map<String, java.util.List<Long>>", "a.b");
+        assertThat(type.type.getDescriptor()).isEqualTo("Ljava/util/Map;");
+        assertThat(type.signature).isEqualTo("Ljava/util/Map<"
+                + "Ljava/lang/String;Ljava/util/List<Ljava/lang/Long;>;>;");
+    }
+
+    @Test
+    public void parses_wildcards() {
+        BytecodeType type = BytecodeType.parse(
+                "java.util.Map<?, ? extends Number>", "a.b");
+        assertThat(type.signature)
+                .isEqualTo("Ljava/util/Map<*+Ljava/lang/Number;>;");
+    }
+
+    @Test
+    public void parses_array_of_generic_type() {
+        BytecodeType type = BytecodeType.parse("java.util.List<String>[]",
+                "a.b");
+        assertThat(type.type.getDescriptor()).isEqualTo("[Ljava/util/List;");
+        assertThat(type.signature)
+                .isEqualTo("[Ljava/util/List<Ljava/lang/String;>;");
+    }
+
+    @Test
+    public void rejects_primitive_type_argument() {
+        thrown.expect(IllegalArgumentException.class);
+        BytecodeType.parse("java.util.List<int>", "a.b");
+    }
+
+    @Test
+    public void rejects_unclosed_type_arguments() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("java.util.List<String");
+        BytecodeType.parse("java.util.List<String", "a.b");
+    }
+}
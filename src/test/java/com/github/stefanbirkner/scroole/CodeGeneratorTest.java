@@ -2,12 +2,17 @@ package com.github.stefanbirkner.scroole;
 
 import com.github.stefanbirkner.scroole.model.ClassSpecification;
 import com.github.stefanbirkner.scroole.model.Field;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
 import java.util.List;
 
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonMap;
+import static org.apache.commons.io.FileUtils.readFileToString;
 import static org.apache.commons.lang3.StringUtils.join;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -16,6 +21,9 @@ public class CodeGeneratorTest {
     private static final String NO_JAVA_DOC = "";
     private final CodeGenerator codeGenerator = new CodeGenerator();
 
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void creates_empty_class_in_default_package() {
         ClassSpecification model = new ClassSpecification("DummyClass", NO_JAVA_DOC, NO_FIELDS);
@@ -157,17 +165,18 @@ public class CodeGeneratorTest {
                 "    else if (other == null || getClass() != other.getClass())",
                 "        return false;",
                 "    DummyClass that = (DummyClass) other;",
-                "    return equals(text, that.text);",
-                "  }",
-                "",
-                "  private boolean equals(Object left, Object right) {",
-                "    if (left == null)",
-                "        return right == null;",
-                "    else",
-                "        return left.equals(right);",
+                "    return (text == that.text || text != null && text.equals(that.text));",
                 "  }"));
     }
 
+    @Test
+    public void creates_equals_method_without_helper_method() {
+        ClassSpecification model = classModelWithFields(
+                new Field("text", "java.lang.String", NO_JAVA_DOC));
+        String code = codeGenerator.createCode(model);
+        assertThat(code).doesNotContain("equals(Object left, Object right)");
+    }
+
     @Test
     public void creates_equals_method_that_uses_arrays_equals_for_arrays() {
         ClassSpecification model = classModelWithFields(
@@ -234,10 +243,53 @@ public class CodeGeneratorTest {
                 "        return false;",
                 "    DummyClass that = (DummyClass) other;",
                 "    return count == that.count",
-                "            && equals(text, that.text);",
+                "            && (text == that.text || text != null && text.equals(that.text));",
                 "  }"));
     }
 
+    @Test
+    public void creates_equals_method_that_checks_cheap_fields_first() {
+        ClassSpecification model = classModelWithFields(
+                new Field("numbers", "int[]", NO_JAVA_DOC),
+                new Field("items", "java.util.List<String>", NO_JAVA_DOC),
+                new Field("owner", "a.b.Person", NO_JAVA_DOC),
+                new Field("title", "String", NO_JAVA_DOC),
+                new Field("price", "double", NO_JAVA_DOC),
+                new Field("count", "int", NO_JAVA_DOC));
+        String code = codeGenerator.createCode(model);
+        assertThat(code).contains(multipleRows(
+                "    return count == that.count",
+                "            && java.lang.Double.doubleToLongBits(price) == java.lang.Double.doubleToLongBits(that.price)",
+                "            && (title == that.title || title != null && title.equals(that.title))",
+                "            && (owner == that.owner || owner != null && owner.equals(that.owner))",
+                "            && (items == that.items || items != null && items.equals(that.items))",
+                "            && java.util.Arrays.equals(numbers, that.numbers);"));
+    }
+
+    @Test
+    public void creates_equals_method_that_checks_value_types_of_java_util_before_collections() {
+        ClassSpecification model = classModelWithFields(
+                new Field("items", "java.util.ArrayList", NO_JAVA_DOC),
+                new Field("id", "java.util.UUID", NO_JAVA_DOC));
+        String code = codeGenerator.createCode(model);
+        assertThat(code).contains(multipleRows(
+                "    return (id == that.id || id != null && id.equals(that.id))",
+                "            && (items == that.items || items != null && items.equals(that.items));"));
+    }
+
+    @Test
+    public void creates_equals_method_that_checks_other_generic_types_before_collections() {
+        ClassSpecification model = classModelWithFields(
+                new Field("items", "java.util.List<String>", NO_JAVA_DOC),
+                new Field("title", "java.util.Optional<String>", NO_JAVA_DOC),
+                new Field("key", "Comparable<a.b.Person>", NO_JAVA_DOC));
+        String code = codeGenerator.createCode(model);
+        assertThat(code).contains(multipleRows(
+                "    return (title == that.title || title != null && title.equals(that.title))",
+                "            && (key == that.key || key != null && key.equals(that.key))",
+                "            && (items == that.items || items != null && items.equals(that.items));"));
+    }
+
     @Test
     public void creates_hashCode_method_that_considers_every_field() {
         ClassSpecification model = classModelWithFields(
@@ -272,10 +324,323 @@ public class CodeGeneratorTest {
                 "  }"));
     }
 
+    @Test
+    public void creates_lazily_cached_hashCode_method() {
+        ClassSpecification model = classModelWithOption("hashCode", "lazy",
+                new Field("count", "int", NO_JAVA_DOC));
+        String code = codeGenerator.createCode(model);
+        assertThat(code).contains("private int cachedHashCode;");
+        assertThat(code).contains(multipleRows(
+                "  @Override",
+                "  public int hashCode() {",
+                "    int result = cachedHashCode;",
+                "    if (result == 0) {",
+                "      result = computeHashCode();",
+                "      cachedHashCode = result;",
+                "    }",
+                "    return result;",
+                "  }",
+                "",
+                "  private int computeHashCode() {",
+                "    int prime = 31;",
+                "    int result = 1;",
+                "    result = prime * result + count;",
+                "    return result;",
+                "  }"));
+    }
+
+    @Test
+    public void creates_equals_method_that_compares_lazily_cached_hash_codes() {
+        ClassSpecification model = classModelWithOption("hashCode", "lazy",
+                new Field("count", "int", NO_JAVA_DOC));
+        String code = codeGenerator.createCode(model);
+        assertThat(code).contains(multipleRows(
+                "    DummyClass that = (DummyClass) other;",
+                "    if (cachedHashCode != 0 && that.cachedHashCode != 0",
+                "        && cachedHashCode != that.cachedHashCode)",
+                "        return false;",
+                "    return count == that.count;"));
+    }
+
+    @Test
+    public void creates_eagerly_cached_hashCode_method() {
+        ClassSpecification model = classModelWithOption("hashCode", "eager",
+                new Field("count", "int", NO_JAVA_DOC));
+        String code = codeGenerator.createCode(model);
+        assertThat(code).contains("private final int cachedHashCode;");
+        assertThat(code).contains(multipleRows(
+                "    this.count = count;",
+                "    this.cachedHashCode = computeHashCode();",
+                "  }"));
+        assertThat(code).contains(multipleRows(
+                "  @Override",
+                "  public int hashCode() {",
+                "    return cachedHashCode;",
+                "  }"));
+    }
+
+    @Test
+    public void creates_equals_method_that_compares_eagerly_cached_hash_codes() {
+        ClassSpecification model = classModelWithOption("hashCode", "eager",
+                new Field("count", "int", NO_JAVA_DOC));
+        String code = codeGenerator.createCode(model);
+        assertThat(code).contains(multipleRows(
+                "    DummyClass that = (DummyClass) other;",
+                "    if (cachedHashCode != that.cachedHashCode)",
+                "        return false;",
+                "    return count == that.count;"));
+    }
+
+    @Test
+    public void creates_factory_that_interns_objects() {
+        ClassSpecification model = classModelWithOption("intern", "",
+                new Field("title", "String", NO_JAVA_DOC),
+                new Field("count", "int", NO_JAVA_DOC));
+        String code = codeGenerator.createCode(model);
+        assertThat(code).contains(multipleRows(
+                "  public static DummyClass of(String title, int count) {",
+                "    return new DummyClass(title, count).intern();",
+                "  }"));
+    }
+
+    @Test
+    public void creates_striped_intern_pool() {
+        ClassSpecification model = classModelWithOption("intern", "",
+                new Field("count", "int", NO_JAVA_DOC));
+        String code = codeGenerator.createCode(model);
+        assertThat(code).contains(
+                "  private static final List<WeakHashMap<DummyClass, WeakReference<DummyClass>>> INTERN_POOL = createInternPool();");
+        assertThat(code).contains(multipleRows(
+                "  private static List<WeakHashMap<DummyClass, WeakReference<DummyClass>>> createInternPool() {",
+                "    List<WeakHashMap<DummyClass, WeakReference<DummyClass>>> pool = new ArrayList<WeakHashMap<DummyClass, WeakReference<DummyClass>>>();",
+                "    for (int i = 0; i < 16; ++i) {",
+                "      pool.add(new WeakHashMap<DummyClass, WeakReference<DummyClass>>());",
+                "    }",
+                "    return pool;",
+                "  }"));
+    }
+
+    @Test
+    public void creates_intern_method() {
+        ClassSpecification model = classModelWithOption("intern", "",
+                new Field("count", "int", NO_JAVA_DOC));
+        String code = codeGenerator.createCode(model);
+        assertThat(code).contains(multipleRows(
+                "  public DummyClass intern() {",
+                "    WeakHashMap<DummyClass, WeakReference<DummyClass>> pool = INTERN_POOL.get(hashCode() & 15);",
+                "    synchronized (pool) {",
+                "      WeakReference<DummyClass> reference = pool.get(this);",
+                "      DummyClass interned = reference == null ? null : reference.get();",
+                "      if (interned == null) {",
+                "        interned = this;",
+                "        pool.put(this, new WeakReference<DummyClass>(this));",
+                "      }",
+                "      return interned;",
+                "    }",
+                "  }"));
+    }
+
+    @Test
+    public void creates_factory_that_returns_flyweights() {
+        ClassSpecification model = classModelWithOption("flyweight", "0..15",
+                new Field("b", "byte", NO_JAVA_DOC),
+                new Field("s", "short", NO_JAVA_DOC));
+        String code = codeGenerator.createCode(model);
+        assertThat(code).contains(multipleRows(
+                "  public static DummyClass valueOf(byte b, short s) {",
+                "    if (b >= 0 && b <= 15",
+                "        && s >= 0 && s <= 15)",
+                "        return FLYWEIGHTS[b * 16 + s];",
+                "    else",
+                "        return new DummyClass(b, s);",
+                "  }"));
+    }
+
+    @Test
+    public void creates_table_of_flyweights() {
+        ClassSpecification model = classModelWithOption("flyweight", "0..15",
+                new Field("b", "byte", NO_JAVA_DOC),
+                new Field("s", "short", NO_JAVA_DOC));
+        String code = codeGenerator.createCode(model);
+        assertThat(code).contains(
+                "  private static final DummyClass[] FLYWEIGHTS = createFlyweights();");
+        assertThat(code).contains(multipleRows(
+                "  private static DummyClass[] createFlyweights() {",
+                "    DummyClass[] flyweights = new DummyClass[256];",
+                "    for (int i = 0; i < 256; ++i) {",
+                "      flyweights[i] = new DummyClass((byte) (i / 16), (short) (i % 16));",
+                "    }",
+                "    return flyweights;",
+                "  }"));
+    }
+
+    @Test
+    public void creates_flyweights_for_range_with_negative_minimum() {
+        ClassSpecification model = classModelWithOption("flyweight", "-2..2",
+                new Field("count", "int", NO_JAVA_DOC),
+                new Field("total", "long", NO_JAVA_DOC));
+        String code = codeGenerator.createCode(model);
+        assertThat(code).contains(
+                "        return FLYWEIGHTS[(count + 2) * 5 + (int) (total + 2)];");
+        assertThat(code).contains(
+                "      flyweights[i] = new DummyClass(i / 5 - 2, i % 5 - 2);");
+    }
+
+    @Test
+    public void creates_flyweights_for_range_with_minimum_of_int() {
+        ClassSpecification model = classModelWithOption("flyweight",
+                "-2147483648..-2147483647",
+                new Field("count", "int", NO_JAVA_DOC),
+                new Field("total", "long", NO_JAVA_DOC));
+        String code = codeGenerator.createCode(model);
+        assertThat(code).contains(
+                "        return FLYWEIGHTS[(int) (count + 2147483648L) * 2 + (int) (total + 2147483648L)];");
+        assertThat(code).contains(
+                "      flyweights[i] = new DummyClass((int) (i / 2 - 2147483648L), i % 2 - 2147483648L);");
+    }
+
+    @Test
+    public void creates_mutable_companion_with_getters_and_setters() {
+        ClassSpecification model = classModelWithOption("mutable", "",
+                new Field("count", "int", NO_JAVA_DOC));
+        String code = codeGenerator.createCode(model);
+        assertThat(code).contains(multipleRows(
+                "  public static final class MutableDummyClass {",
+                "    private int count;",
+                "",
+                "    public int getCount() {",
+                "      return count;",
+                "    }",
+                "",
+                "    public void setCount(int count) {",
+                "      this.count = count;",
+                "    }"));
+    }
+
+    @Test
+    public void creates_mutable_companion_that_can_be_reused() {
+        ClassSpecification model = classModelWithOption("mutable", "",
+                new Field("title", "String", NO_JAVA_DOC),
+                new Field("count", "int", NO_JAVA_DOC),
+                new Field("done", "boolean", NO_JAVA_DOC));
+        String code = codeGenerator.createCode(model);
+        assertThat(code).contains(multipleRows(
+                "    public void reset() {",
+                "      title = null;",
+                "      count = 0;",
+                "      done = false;",
+                "    }",
+                "",
+                "    public void copyFrom(DummyClass value) {",
+                "      this.title = value.getTitle();",
+                "      this.count = value.getCount();",
+                "      this.done = value.getDone();",
+                "    }",
+                "",
+                "    public DummyClass toImmutable() {",
+                "      return new DummyClass(title, count, done);",
+                "    }"));
+    }
+
+    @Test
+    public void creates_mutable_companion_that_equals_immutable_object() {
+        ClassSpecification model = classModelWithOption("mutable", "",
+                new Field("title", "String", NO_JAVA_DOC),
+                new Field("count", "int", NO_JAVA_DOC));
+        String code = codeGenerator.createCode(model);
+        assertThat(code).contains(multipleRows(
+                "    @Override",
+                "    public int hashCode() {",
+                "      int prime = 31;",
+                "      int result = 1;",
+                "      result = prime * result + (title == null ? 0 : title.hashCode());",
+                "      result = prime * result + count;",
+                "      return result;",
+                "    }",
+                "",
+                "    @Override",
+                "    public boolean equals(Object other) {",
+                "      if (other instanceof MutableDummyClass) {",
+                "        MutableDummyClass that = (MutableDummyClass) other;",
+                "        return count == that.count",
+                "                && (title == that.title || title != null && title.equals(that.title));",
+                "      } else if (other instanceof DummyClass) {",
+                "        DummyClass that = (DummyClass) other;",
+                "        return count == that.getCount()",
+                "                && (title == that.getTitle() || title != null && title.equals(that.getTitle()));",
+                "      } else {",
+                "        return false;",
+                "      }",
+                "    }"));
+    }
+
+    @Test
+    public void creates_equals_method_that_lets_mutable_companion_compare() {
+        ClassSpecification model = classModelWithOption("mutable", "",
+                new Field("count", "int", NO_JAVA_DOC));
+        String code = codeGenerator.createCode(model);
+        assertThat(code).contains(multipleRows(
+                "    if (other == this)",
+                "        return true;",
+                "    else if (other instanceof MutableDummyClass)",
+                "        return other.equals(this);",
+                "    else if (other == null || getClass() != other.getClass())",
+                "        return false;"));
+    }
+
+    @Test
+    public void reuses_parsed_types_of_previous_classes() {
+        codeGenerator.createCode(classModelWithFields(
+                new Field("items", "java.util.List<java.lang.String>", NO_JAVA_DOC)));
+        codeGenerator.createCode(classModelWithFields(
+                new Field("items", "java.util.List<java.lang.String>", NO_JAVA_DOC)));
+        CacheStatistics statistics = codeGenerator.getTypeCacheStatistics();
+        assertThat(statistics.misses).isEqualTo(2L);
+        assertThat(statistics.hits).isEqualTo(1L);
+        assertThat(statistics.size).isEqualTo(2);
+    }
+
+    @Test
+    public void does_not_cache_more_types_than_the_maximum() {
+        CodeGenerator generator = new CodeGenerator(1);
+        generator.createCode(classModelWithFields(
+                new Field("a", "int", NO_JAVA_DOC),
+                new Field("b", "long", NO_JAVA_DOC)));
+        assertThat(generator.getTypeCacheStatistics().size).isEqualTo(1);
+    }
+
+    @Test
+    public void writes_same_code_to_appendable_that_it_creates()
+            throws Exception {
+        ClassSpecification model = new ClassSpecification("a.b", "DummyClass",
+                "dummy javadoc", asList(
+                        new Field("title", "String", NO_JAVA_DOC),
+                        new Field("count", "int", NO_JAVA_DOC)));
+        StringBuilder code = new StringBuilder();
+        codeGenerator.writeCode(model, code);
+        assertThat(code.toString()).isEqualTo(codeGenerator.createCode(model));
+    }
+
+    @Test
+    public void writes_code_to_file_with_utf_8() throws Exception {
+        ClassSpecification model = new ClassSpecification("DummyClass",
+                "Gr\u00fc\u00dfe", NO_FIELDS);
+        File file = new File(folder.getRoot(), "a/b/DummyClass.java");
+        codeGenerator.writeCode(model, file.toPath());
+        assertThat(readFileToString(file, "UTF-8"))
+                .isEqualTo(codeGenerator.createCode(model));
+    }
+
     private ClassSpecification classModelWithFields(Field... fields) {
         return new ClassSpecification("DummyClass", NO_JAVA_DOC, asList(fields));
     }
 
+    private ClassSpecification classModelWithOption(String name,
+            String value, Field... fields) {
+        return new ClassSpecification("", "DummyClass", NO_JAVA_DOC,
+                asList(fields), singletonMap(name, value));
+    }
+
     private String multipleRows(String... lines) {
         return join(lines, "\n");
     }
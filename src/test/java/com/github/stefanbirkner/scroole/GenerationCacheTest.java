@@ -0,0 +1,100 @@
+package com.github.stefanbirkner.scroole;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.apache.commons.io.FileUtils.readFileToString;
+import static org.apache.commons.io.FileUtils.write;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GenerationCacheTest {
+    private static final String HASH = "0123456789abcdef";
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void keys_differ_for_different_classes() {
+        assertThat(GenerationCache.key("a.Simple", HASH, OutputFormat.SOURCE))
+                .isNotEqualTo(GenerationCache.key(
+                        "b.Simple", HASH, OutputFormat.SOURCE));
+    }
+
+    @Test
+    public void keys_differ_for_different_output_formats() {
+        assertThat(GenerationCache.key("a.Simple", HASH, OutputFormat.SOURCE))
+                .isNotEqualTo(GenerationCache.key(
+                        "a.Simple", HASH, OutputFormat.BYTECODE));
+    }
+
+    @Test
+    public void provides_stored_file() throws Exception {
+        GenerationCache cache = new GenerationCache(folder.newFolder(), 1000);
+        cache.put("abcdef", fileWithContent("dummy content"));
+        Path cachedFile = cache.get("abcdef");
+        assertThat(readFileToString(cachedFile.toFile(), "UTF-8"))
+                .isEqualTo("dummy content");
+    }
+
+    @Test
+    public void provides_no_file_for_unknown_key() throws Exception {
+        GenerationCache cache = new GenerationCache(folder.newFolder(), 1000);
+        assertThat((Object) cache.get("abcdef")).isNull();
+    }
+
+    @Test
+    public void evicts_least_recently_used_files() throws Exception {
+        GenerationCache cache = new GenerationCache(folder.newFolder(), 25);
+        cache.put("aa0001", fileWithContent("0123456789"));
+        cache.put("aa0002", fileWithContent("0123456789"));
+        cache.put("bb0003", fileWithContent("0123456789"));
+        setLastUsed(cache.get("aa0001"), 3000);
+        setLastUsed(cache.get("aa0002"), 1000);
+        setLastUsed(cache.get("bb0003"), 2000);
+        cache.evict();
+        assertThat((Object) cache.get("aa0001")).isNotNull();
+        assertThat((Object) cache.get("aa0002")).isNull();
+        assertThat((Object) cache.get("bb0003")).isNotNull();
+    }
+
+    @Test
+    public void does_not_touch_cached_file_when_it_is_used()
+            throws Exception {
+        GenerationCache cache = new GenerationCache(folder.newFolder(), 1000);
+        cache.setHardLinks(true);
+        cache.put("abcdef", fileWithContent("dummy content"));
+        Path cachedFile = cache.get("abcdef");
+        Files.setLastModifiedTime(cachedFile, FileTime.fromMillis(1000));
+        cache.get("abcdef");
+        assertThat(Files.getLastModifiedTime(cachedFile).toMillis())
+                .isEqualTo(1000);
+    }
+
+    @Test
+    public void does_not_evict_files_if_cache_is_small_enough()
+            throws Exception {
+        GenerationCache cache = new GenerationCache(folder.newFolder(), 30);
+        cache.put("aa0001", fileWithContent("0123456789"));
+        cache.put("bb0002", fileWithContent("0123456789"));
+        cache.evict();
+        assertThat((Object) cache.get("aa0001")).isNotNull();
+        assertThat((Object) cache.get("bb0002")).isNotNull();
+    }
+
+    private File fileWithContent(String content) throws Exception {
+        File file = folder.newFile();
+        write(file, content, "UTF-8");
+        return file;
+    }
+
+    private void setLastUsed(Path file, long time) throws Exception {
+        Path marker = file.resolveSibling(file.getFileName() + ".used");
+        Files.setLastModifiedTime(marker, FileTime.fromMillis(time));
+    }
+}
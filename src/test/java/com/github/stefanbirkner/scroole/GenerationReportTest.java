@@ -0,0 +1,47 @@
+package com.github.stefanbirkner.scroole;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GenerationReportTest {
+    @Test
+    public void keeps_the_slowest_specifications_slowest_first() {
+        GenerationReport.Recorder recorder = new GenerationReport.Recorder();
+        for (int i = 1; i <= 7; ++i)
+            recorder.addSpecificationTime("Spec" + i + ".scroole", i);
+        GenerationReport report = recorder.toReport();
+        assertThat(report.slowestSpecifications).hasSize(5);
+        assertThat(report.slowestSpecifications.get(0).time).isEqualTo(7);
+        assertThat(report.slowestSpecifications.get(4).time).isEqualTo(3);
+    }
+
+    @Test
+    public void does_not_report_allocations_if_a_thread_did_not_measure_them() {
+        GenerationReport.Recorder recorder = new GenerationReport.Recorder();
+        recorder.addAllocatedBytes(100);
+        recorder.addAllocatedBytes(-1);
+        recorder.addAllocatedBytes(100);
+        assertThat(recorder.toReport().allocatedBytes).isEqualTo(-1);
+    }
+
+    @Test
+    public void creates_json_with_escaped_file_names() {
+        GenerationReport.Recorder recorder = new GenerationReport.Recorder();
+        recorder.scrooleFiles = 2;
+        recorder.bytesWritten = 1234;
+        recorder.addSpecificationTime("a\"b\\c.scroole", 42);
+        String json = recorder.toReport().toJson();
+        assertThat(json)
+                .contains("  \"scrooleFiles\": 2,\n")
+                .contains("  \"bytesWritten\": 1234,\n")
+                .contains("    {\"scrooleFile\": \"a\\\"b\\\\c.scroole\","
+                        + " \"time\": 42}\n  ]\n}\n");
+    }
+
+    @Test
+    public void creates_json_without_slowest_specifications() {
+        String json = new GenerationReport.Recorder().toReport().toJson();
+        assertThat(json).endsWith("  \"slowestSpecifications\": []\n}\n");
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.stefanbirkner.scroole;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.apache.commons.io.FileUtils.write;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScrooleProcessorTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String EMPTY_CLASS = "public class Dummy {}\n";
+
+    private final DiagnosticCollector<JavaFileObject> diagnostics
+            = new DiagnosticCollector<>();
+    private File sourceDirectory;
+    private File outputDirectory;
+
+    @Before
+    public void createDirectories() throws IOException {
+        sourceDirectory = folder.newFolder();
+        outputDirectory = folder.newFolder();
+    }
+
+    @Test
+    public void compiles_class_for_scroole_file() throws Exception {
+        createFile("a/Simple.scroole", "name: java.lang.String");
+        boolean success = compile(EMPTY_CLASS,
+                "-Ascroole.sourceDirectories=" + sourceDirectory);
+        assertThat(success).isTrue();
+        assertThat(new File(outputDirectory, "a/Simple.class")).exists();
+    }
+
+    @Test
+    public void generated_class_can_be_used_by_compiled_sources()
+            throws Exception {
+        createFile("a/Simple.scroole", "name: java.lang.String");
+        boolean success = compile(
+                "public class Dummy {\n"
+                        + "  a.Simple simple = new a.Simple(\"dummy\");\n"
+                        + "}\n",
+                "-Ascroole.sourceDirectories=" + sourceDirectory);
+        assertThat(success).isTrue();
+        assertThat(new File(outputDirectory, "Dummy.class")).exists();
+    }
+
+    @Test
+    public void does_not_compile_excluded_scroole_files() throws Exception {
+        createFile("a/Simple.scroole", "name: java.lang.String");
+        createFile("b/Simple.scroole", "name: java.lang.String");
+        compile(EMPTY_CLASS,
+                "-Ascroole.sourceDirectories=" + sourceDirectory,
+                "-Ascroole.excludes=b/**");
+        assertThat(new File(outputDirectory, "b/Simple.class")).doesNotExist();
+    }
+
+    @Test
+    public void does_nothing_without_source_directories() throws Exception {
+        createFile("a/Simple.scroole", "name: java.lang.String");
+        compile(EMPTY_CLASS);
+        assertThat(new File(outputDirectory, "a/Simple.class")).doesNotExist();
+    }
+
+    @Test
+    public void reports_error_for_invalid_scroole_file() throws Exception {
+        createFile("a/Broken.scroole", "name");
+        boolean success = compile(EMPTY_CLASS,
+                "-Ascroole.sourceDirectories=" + sourceDirectory);
+        assertThat(success).isFalse();
+        assertThat(errors()).hasSize(1);
+        assertThat(errors().get(0)).contains("Broken.scroole:1:1");
+    }
+
+    private void createFile(String path, String content) throws IOException {
+        write(new File(sourceDirectory, path), content);
+    }
+
+    private boolean compile(String source, String... options)
+            throws IOException {
+        File dummy = new File(folder.getRoot(), "Dummy.java");
+        write(dummy, source);
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager
+                     = compiler.getStandardFileManager(null, null, null)) {
+            List<String> arguments = new ArrayList<>(asList(options));
+            arguments.addAll(asList("-d", outputDirectory.getPath()));
+            JavaCompiler.CompilationTask task = compiler.getTask(null,
+                    fileManager, diagnostics, arguments, null,
+                    fileManager.getJavaFileObjects(dummy));
+            task.setProcessors(singletonList(new ScrooleProcessor()));
+            return task.call();
+        }
+    }
+
+    private List<String> errors() {
+        List<String> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic
+                : diagnostics.getDiagnostics())
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                errors.add(diagnostic.getMessage(null));
+        return errors;
+    }
+}
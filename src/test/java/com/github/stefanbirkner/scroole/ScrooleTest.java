@@ -1,5 +1,7 @@
 package com.github.stefanbirkner.scroole;
 
+import com.github.stefanbirkner.scroole.model.ClassSpecification;
+import com.github.stefanbirkner.scroole.model.Parser;
 import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Rule;
@@ -14,11 +16,22 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.apache.commons.io.FileUtils.copyInputStreamToFile;
+import static org.apache.commons.io.FileUtils.readFileToByteArray;
 import static org.apache.commons.io.FileUtils.readFileToString;
 import static org.apache.commons.io.FileUtils.write;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
 import static org.junit.rules.ExpectedException.none;
 
 @RunWith(Enclosed.class)
@@ -149,6 +162,767 @@ public class ScrooleTest {
         }
     }
 
+    public static class GeneratesFilesIncrementally {
+        @Rule
+        public final TemporaryFolder folder = new TemporaryFolder();
+
+        private File directoryWithScrooleFiles;
+        private File outputDirectory;
+
+        @Before
+        public void createDirectories() throws IOException {
+            directoryWithScrooleFiles = folder.newFolder();
+            outputDirectory = folder.newFolder();
+        }
+
+        @Test
+        public void does_not_overwrite_java_file_of_unchanged_scroole_file()
+                throws Exception {
+            createScrooleFile("Simple.scroole", readResource("Simple.scroole"));
+            runScroole();
+            write(javaFile("Simple.java"), "dummy content");
+            runScroole();
+            assertThat(readFileToString(javaFile("Simple.java")))
+                    .isEqualTo("dummy content");
+        }
+
+        @Test
+        public void regenerates_java_file_of_changed_scroole_file()
+                throws Exception {
+            createScrooleFile("Simple.scroole", "name: String");
+            runScroole();
+            createScrooleFile("Simple.scroole", "title: String");
+            runScroole();
+            assertThat(readFileToString(javaFile("Simple.java")))
+                    .contains("getTitle");
+        }
+
+        @Test
+        public void regenerates_java_file_that_has_been_deleted()
+                throws Exception {
+            createScrooleFile("Simple.scroole", readResource("Simple.scroole"));
+            runScroole();
+            javaFile("Simple.java").delete();
+            runScroole();
+            assertThat(javaFile("Simple.java")).exists();
+        }
+
+        @Test
+        public void deletes_java_file_of_deleted_scroole_file()
+                throws Exception {
+            File scrooleFile = createScrooleFile(
+                    "Simple.scroole", readResource("Simple.scroole"));
+            runScroole();
+            scrooleFile.delete();
+            runScroole();
+            assertThat(javaFile("Simple.java")).doesNotExist();
+        }
+
+        @Test
+        public void deletes_empty_package_directory_of_deleted_scroole_file()
+                throws Exception {
+            File scrooleFile = createScrooleFile(
+                    "sub/Simple.scroole", readResource("Simple.scroole"));
+            runScroole();
+            scrooleFile.delete();
+            runScroole();
+            assertThat(new File(outputDirectory, "sub")).doesNotExist();
+        }
+
+        @Test
+        public void regenerates_all_java_files_if_manifest_is_missing()
+                throws Exception {
+            createScrooleFile("Simple.scroole", readResource("Simple.scroole"));
+            runScroole();
+            write(javaFile("Simple.java"), "dummy content");
+            new File(outputDirectory, Manifest.FILENAME).delete();
+            runScroole();
+            assertThat(readFileToString(javaFile("Simple.java")))
+                    .isEqualTo(readResource("Simple.java"));
+        }
+
+        @Test
+        public void does_not_touch_regenerated_java_file_with_same_content()
+                throws Exception {
+            createScrooleFile("Simple.scroole", "name: String");
+            runScroole();
+            javaFile("Simple.java").setLastModified(1000L);
+            createScrooleFile("Simple.scroole", "name:   String");
+            runScroole();
+            assertThat(javaFile("Simple.java").lastModified())
+                    .isEqualTo(1000L);
+        }
+
+        @Test
+        public void does_not_leave_temporary_files() throws Exception {
+            createScrooleFile("Simple.scroole", "name: String");
+            runScroole();
+            assertThat(outputDirectory.list()).containsOnly(
+                    "Simple.java", Manifest.FILENAME);
+        }
+
+        private File createScrooleFile(String name, String scrooleCode)
+                throws IOException {
+            File file = new File(directoryWithScrooleFiles, name);
+            write(file, scrooleCode);
+            return file;
+        }
+
+        private void runScroole() throws IOException {
+            new Scroole(directoryWithScrooleFiles, outputDirectory)
+                    .generateFiles();
+        }
+
+        private File javaFile(String name) {
+            return new File(outputDirectory, name);
+        }
+    }
+
+    public static class FiltersScrooleFiles {
+        @Rule
+        public final TemporaryFolder folder = new TemporaryFolder();
+
+        private File directoryWithScrooleFiles;
+        private File outputDirectory;
+        private Scroole scroole;
+
+        @Before
+        public void createScroole() throws IOException {
+            directoryWithScrooleFiles = folder.newFolder();
+            outputDirectory = folder.newFolder();
+            scroole = new Scroole(directoryWithScrooleFiles, outputDirectory);
+        }
+
+        @Test
+        public void generates_java_files_for_included_scroole_files_only()
+                throws Exception {
+            createScrooleFile("a/Simple.scroole");
+            createScrooleFile("b/Simple.scroole");
+            scroole.setIncludes(asList("a/**/*.scroole"));
+            scroole.generateFiles();
+            assertThat(javaFile("a/Simple.java")).exists();
+            assertThat(javaFile("b/Simple.java")).doesNotExist();
+        }
+
+        @Test
+        public void includes_files_in_the_directory_itself_for_double_star_pattern()
+                throws Exception {
+            createScrooleFile("Simple.scroole");
+            scroole.setIncludes(asList("**/*.scroole"));
+            scroole.generateFiles();
+            assertThat(javaFile("Simple.java")).exists();
+        }
+
+        @Test
+        public void does_not_generate_java_files_for_excluded_scroole_files()
+                throws Exception {
+            createScrooleFile("a/Simple.scroole");
+            createScrooleFile("a/Excluded.scroole");
+            scroole.setExcludes(asList("**/Excluded.scroole"));
+            scroole.generateFiles();
+            assertThat(javaFile("a/Simple.java")).exists();
+            assertThat(javaFile("a/Excluded.java")).doesNotExist();
+        }
+
+        @Test
+        public void does_not_generate_java_files_for_scroole_files_in_excluded_directory()
+                throws Exception {
+            createScrooleFile("a/Simple.scroole");
+            createScrooleFile("b/c/Simple.scroole");
+            scroole.setExcludes(asList("b/**"));
+            scroole.generateFiles();
+            assertThat(javaFile("a/Simple.java")).exists();
+            assertThat(javaFile("b/c/Simple.java")).doesNotExist();
+        }
+
+        @Test
+        public void ignores_files_that_are_not_scroole_files()
+                throws Exception {
+            createScrooleFile("Simple.txt");
+            scroole.generateFiles();
+            assertThat(javaFile("Simple.java")).doesNotExist();
+        }
+
+        @Test
+        public void deletes_java_file_of_scroole_file_that_is_excluded_later()
+                throws Exception {
+            createScrooleFile("a/Simple.scroole");
+            scroole.generateFiles();
+            scroole.setExcludes(asList("a/**"));
+            scroole.generateFiles();
+            assertThat(javaFile("a/Simple.java")).doesNotExist();
+        }
+
+        private void createScrooleFile(String path) throws IOException {
+            write(new File(directoryWithScrooleFiles, path), "name: String");
+        }
+
+        private File javaFile(String path) {
+            return new File(outputDirectory, path);
+        }
+    }
+
+    public static class GeneratesFilesOfChangedScrooleFiles {
+        @Rule
+        public final TemporaryFolder folder = new TemporaryFolder();
+
+        private File directoryWithScrooleFiles;
+        private File outputDirectory;
+        private Scroole scroole;
+
+        @Before
+        public void createScroole() throws IOException {
+            directoryWithScrooleFiles = folder.newFolder();
+            outputDirectory = folder.newFolder();
+            scroole = new Scroole(directoryWithScrooleFiles, outputDirectory);
+        }
+
+        @Test
+        public void generates_java_file_of_given_scroole_file()
+                throws Exception {
+            File scrooleFile = createScrooleFile("a/Simple.scroole");
+            scroole.generateFiles(asList(scrooleFile));
+            assertThat(javaFile("a/Simple.java")).exists();
+        }
+
+        @Test
+        public void does_not_generate_java_files_of_other_scroole_files()
+                throws Exception {
+            File scrooleFile = createScrooleFile("Simple.scroole");
+            createScrooleFile("Other.scroole");
+            scroole.generateFiles(asList(scrooleFile));
+            assertThat(javaFile("Other.java")).doesNotExist();
+        }
+
+        @Test
+        public void keeps_java_files_of_other_scroole_files()
+                throws Exception {
+            File scrooleFile = createScrooleFile("Simple.scroole");
+            createScrooleFile("Other.scroole");
+            scroole.generateFiles();
+            write(scrooleFile, "title: String");
+            scroole.generateFiles(asList(scrooleFile));
+            assertThat(javaFile("Other.java")).exists();
+            assertThat(readFileToString(javaFile("Simple.java")))
+                    .contains("getTitle");
+        }
+
+        @Test
+        public void deletes_java_file_of_deleted_scroole_file()
+                throws Exception {
+            File scrooleFile = createScrooleFile("Simple.scroole");
+            scroole.generateFiles();
+            scrooleFile.delete();
+            scroole.generateFiles(asList(scrooleFile));
+            assertThat(javaFile("Simple.java")).doesNotExist();
+        }
+
+        @Test
+        public void remembers_java_files_of_other_scroole_files()
+                throws Exception {
+            File scrooleFile = createScrooleFile("Simple.scroole");
+            createScrooleFile("Other.scroole");
+            scroole.generateFiles();
+            scroole.generateFiles(asList(scrooleFile));
+            scroole.generateFiles();
+            assertThat(scroole.getReport().skippedFiles).isEqualTo(2);
+        }
+
+        @Test
+        public void ignores_files_that_are_not_scroole_files()
+                throws Exception {
+            File file = createScrooleFile("Simple.txt");
+            scroole.generateFiles(asList(file));
+            assertThat(javaFile("Simple.java")).doesNotExist();
+        }
+
+        private File createScrooleFile(String path) throws IOException {
+            File file = new File(directoryWithScrooleFiles, path);
+            write(file, "name: String");
+            return file;
+        }
+
+        private File javaFile(String path) {
+            return new File(outputDirectory, path);
+        }
+    }
+
+    public static class ReportsStatistics {
+        @Rule
+        public final TemporaryFolder folder = new TemporaryFolder();
+
+        private File directoryWithScrooleFiles;
+        private File outputDirectory;
+        private Scroole scroole;
+
+        @Before
+        public void createScroole() throws IOException {
+            directoryWithScrooleFiles = folder.newFolder();
+            outputDirectory = folder.newFolder();
+            scroole = new Scroole(directoryWithScrooleFiles, outputDirectory);
+        }
+
+        @Test
+        public void has_no_report_before_files_are_generated() {
+            assertThat(scroole.getReport()).isNull();
+        }
+
+        @Test
+        public void reports_regenerated_files() throws Exception {
+            createScrooleFile("First.scroole", "name: String");
+            createScrooleFile("Second.scroole", "name: String");
+            scroole.generateFiles();
+            GenerationReport report = scroole.getReport();
+            assertThat(report.scrooleFiles).isEqualTo(2);
+            assertThat(report.regeneratedFiles).isEqualTo(2);
+            assertThat(report.bytesWritten).isEqualTo(
+                    javaFile("First.java").length()
+                            + javaFile("Second.java").length());
+        }
+
+        @Test
+        public void reports_skipped_files() throws Exception {
+            createScrooleFile("Simple.scroole", "name: String");
+            scroole.generateFiles();
+            scroole.generateFiles();
+            GenerationReport report = scroole.getReport();
+            assertThat(report.skippedFiles).isEqualTo(1);
+            assertThat(report.regeneratedFiles).isEqualTo(0);
+            assertThat(report.bytesWritten).isEqualTo(0);
+        }
+
+        @Test
+        public void reports_unchanged_files() throws Exception {
+            createScrooleFile("Simple.scroole", "name: String");
+            scroole.generateFiles();
+            createScrooleFile("Simple.scroole", "name:  String");
+            scroole.generateFiles();
+            assertThat(scroole.getReport().unchangedFiles).isEqualTo(1);
+        }
+
+        @Test
+        public void reports_deleted_files() throws Exception {
+            File scrooleFile = createScrooleFile("Simple.scroole", "name: String");
+            scroole.generateFiles();
+            scrooleFile.delete();
+            scroole.generateFiles();
+            assertThat(scroole.getReport().deletedFiles).isEqualTo(1);
+        }
+
+        @Test
+        public void reports_failed_files() throws Exception {
+            createScrooleFile("Simple.scroole", "name: String");
+            createScrooleFile("Broken.scroole", "name");
+            try {
+                scroole.generateFiles();
+                fail("GenerationException expected.");
+            } catch (GenerationException e) {
+                GenerationReport report = scroole.getReport();
+                assertThat(report.failedFiles).isEqualTo(1);
+                assertThat(report.regeneratedFiles).isEqualTo(1);
+            }
+        }
+
+        @Test
+        public void reports_slowest_scroole_files() throws Exception {
+            for (int i = 0; i < 7; ++i)
+                createScrooleFile("Simple" + i + ".scroole", "name: String");
+            scroole.generateFiles();
+            assertThat(scroole.getReport().slowestSpecifications).hasSize(5);
+        }
+
+        private File createScrooleFile(String name, String content)
+                throws IOException {
+            File file = new File(directoryWithScrooleFiles, name);
+            write(file, content);
+            return file;
+        }
+
+        private File javaFile(String name) {
+            return new File(outputDirectory, name);
+        }
+    }
+
+    public static class GeneratesFilesConcurrently {
+        @Rule
+        public final TemporaryFolder folder = new TemporaryFolder();
+        @Rule
+        public final ExpectedException thrown = none();
+
+        private File directoryWithScrooleFiles;
+        private File outputDirectory;
+
+        @Before
+        public void createDirectories() throws IOException {
+            directoryWithScrooleFiles = folder.newFolder();
+            outputDirectory = folder.newFolder();
+        }
+
+        @Test
+        public void generates_java_files_for_every_scroole_file()
+                throws Exception {
+            for (int i = 0; i < 20; ++i)
+                createScrooleFile("Simple" + i + ".scroole", "name: String");
+            runScrooleWithFourThreads();
+            for (int i = 0; i < 20; ++i)
+                assertThat(readFileToString(javaFile("Simple" + i + ".java")))
+                        .contains("public class Simple" + i + " {");
+        }
+
+        @Test
+        public void reports_every_scroole_file_that_cannot_be_generated()
+                throws Exception {
+            createScrooleFile("Broken1.scroole", "no type");
+            createScrooleFile("Broken2.scroole", "no type");
+            thrown.expect(IOException.class);
+            thrown.expectMessage("Broken1.scroole");
+            thrown.expectMessage("Broken2.scroole");
+            runScrooleWithFourThreads();
+        }
+
+        @Test
+        public void generates_valid_scroole_files_although_another_scroole_file_is_broken()
+                throws Exception {
+            createScrooleFile("Broken.scroole", "no type");
+            createScrooleFile("Simple.scroole", "name: String");
+            try {
+                runScrooleWithFourThreads();
+            } catch (IOException ignored) {
+            }
+            assertThat(javaFile("Simple.java")).exists();
+        }
+
+        @Test
+        public void provides_cause_for_every_scroole_file_that_cannot_be_generated()
+                throws Exception {
+            createScrooleFile("Broken.scroole", "no type");
+            createScrooleFile("Simple.scroole", "name: String");
+            try {
+                runScrooleWithFourThreads();
+                fail("GenerationException expected.");
+            } catch (GenerationException e) {
+                assertThat(e.getFailures().keySet()).containsExactly(
+                        new File(directoryWithScrooleFiles, "Broken.scroole"));
+            }
+        }
+
+        @Test
+        public void reports_failures_in_the_order_of_the_scroole_files()
+                throws Exception {
+            List<File> brokenFiles = new ArrayList<>();
+            for (char c = 'A'; c <= 'H'; ++c) {
+                createScrooleFile("Broken" + c + ".scroole", "no type");
+                brokenFiles.add(
+                        new File(directoryWithScrooleFiles, "Broken" + c + ".scroole"));
+            }
+            try {
+                runScrooleWithFourThreads();
+                fail("GenerationException expected.");
+            } catch (GenerationException e) {
+                assertThat(e.getFailures().keySet())
+                        .containsExactlyElementsOf(brokenFiles);
+                assertThat(e.getCause())
+                        .isSameAs(e.getFailures().get(brokenFiles.get(0)));
+            }
+        }
+
+        @Test
+        public void cannot_use_zero_threads() throws Exception {
+            Scroole scroole = new Scroole(
+                    directoryWithScrooleFiles, outputDirectory);
+            thrown.expect(IllegalArgumentException.class);
+            scroole.setThreads(0);
+        }
+
+        private void createScrooleFile(String name, String scrooleCode)
+                throws IOException {
+            write(new File(directoryWithScrooleFiles, name), scrooleCode);
+        }
+
+        private void runScrooleWithFourThreads() throws IOException {
+            Scroole scroole = new Scroole(
+                    directoryWithScrooleFiles, outputDirectory);
+            scroole.setThreads(4);
+            scroole.generateFiles();
+        }
+
+        private File javaFile(String name) {
+            return new File(outputDirectory, name);
+        }
+    }
+
+    public static class WritesClassFiles {
+        @Rule
+        public final TemporaryFolder folder = new TemporaryFolder();
+
+        private File directoryWithScrooleFiles;
+        private File outputDirectory;
+        private File manifestDirectory;
+        private Scroole scroole;
+
+        @Before
+        public void createScroole() throws IOException {
+            directoryWithScrooleFiles = folder.newFolder();
+            outputDirectory = folder.newFolder();
+            manifestDirectory = folder.newFolder();
+            scroole = new Scroole(directoryWithScrooleFiles, outputDirectory);
+            scroole.setManifestDirectory(manifestDirectory);
+            write(new File(directoryWithScrooleFiles, "a/Simple.scroole"),
+                    "name: String");
+        }
+
+        @Test
+        public void writes_class_file_for_scroole_file() throws Exception {
+            scroole.setOutputFormat(OutputFormat.BYTECODE);
+            scroole.generateFiles();
+            assertThat(new File(outputDirectory, "a/Simple.class")).exists();
+        }
+
+        @Test
+        public void does_not_write_java_file() throws Exception {
+            scroole.setOutputFormat(OutputFormat.BYTECODE);
+            scroole.generateFiles();
+            assertThat(new File(outputDirectory, "a/Simple.java"))
+                    .doesNotExist();
+        }
+
+        @Test
+        public void writes_manifest_to_manifest_directory() throws Exception {
+            scroole.setOutputFormat(OutputFormat.BYTECODE);
+            scroole.generateFiles();
+            assertThat(outputDirectory.list()).containsOnly("a");
+            assertThat(manifestDirectory.list()).isNotEmpty();
+        }
+
+        @Test
+        public void replaces_java_file_when_output_format_changes()
+                throws Exception {
+            scroole.generateFiles();
+            scroole.setOutputFormat(OutputFormat.BYTECODE);
+            scroole.generateFiles();
+            assertThat(new File(outputDirectory, "a/Simple.java"))
+                    .doesNotExist();
+            assertThat(new File(outputDirectory, "a/Simple.class")).exists();
+        }
+    }
+
+    public static class UsesCache {
+        @Rule
+        public final TemporaryFolder folder = new TemporaryFolder();
+
+        private File directoryWithScrooleFiles;
+        private GenerationCache cache;
+
+        @Before
+        public void createScrooleFileAndCache() throws IOException {
+            directoryWithScrooleFiles = folder.newFolder();
+            write(new File(directoryWithScrooleFiles, "a/Simple.scroole"),
+                    "name: String");
+            cache = new GenerationCache(folder.newFolder(), 1000000);
+        }
+
+        @Test
+        public void copies_file_that_has_been_generated_before()
+                throws Exception {
+            File firstOutputDirectory = folder.newFolder();
+            generateFiles(firstOutputDirectory);
+            File secondOutputDirectory = folder.newFolder();
+            Scroole scroole = generateFiles(secondOutputDirectory);
+            assertThat(scroole.getReport().cachedFiles).isEqualTo(1);
+            assertThat(readFileToString(
+                    new File(secondOutputDirectory, "a/Simple.java")))
+                    .isEqualTo(readFileToString(
+                            new File(firstOutputDirectory, "a/Simple.java")));
+        }
+
+        @Test
+        public void generates_file_of_changed_scroole_file()
+                throws Exception {
+            generateFiles(folder.newFolder());
+            write(new File(directoryWithScrooleFiles, "a/Simple.scroole"),
+                    "title: String");
+            File outputDirectory = folder.newFolder();
+            Scroole scroole = generateFiles(outputDirectory);
+            assertThat(scroole.getReport().cachedFiles).isEqualTo(0);
+            assertThat(readFileToString(
+                    new File(outputDirectory, "a/Simple.java")))
+                    .contains("getTitle");
+        }
+
+        @Test
+        public void copies_file_with_hard_link() throws Exception {
+            cache.setHardLinks(true);
+            generateFiles(folder.newFolder());
+            File outputDirectory = folder.newFolder();
+            Scroole scroole = generateFiles(outputDirectory);
+            assertThat(scroole.getReport().cachedFiles).isEqualTo(1);
+            assertThat(new File(outputDirectory, "a/Simple.java")).exists();
+        }
+
+        private Scroole generateFiles(File outputDirectory)
+                throws IOException {
+            Scroole scroole = new Scroole(
+                    directoryWithScrooleFiles, outputDirectory);
+            scroole.setCache(cache);
+            scroole.generateFiles();
+            return scroole;
+        }
+    }
+
+    public static class GeneratesFilesWithBoundedMemory {
+        @Rule
+        public final TemporaryFolder folder = new TemporaryFolder();
+        @Rule
+        public final ExpectedException thrown = none();
+
+        private File directoryWithScrooleFiles;
+        private File outputDirectory;
+
+        @Before
+        public void createDirectories() throws IOException {
+            directoryWithScrooleFiles = folder.newFolder();
+            outputDirectory = folder.newFolder();
+        }
+
+        @Test
+        public void does_not_exceed_the_maximum_number_of_pending_files()
+                throws Exception {
+            createScrooleFiles(500);
+            Scroole scroole = new Scroole(
+                    directoryWithScrooleFiles, outputDirectory);
+            scroole.setThreads(4);
+            scroole.setMaximumPendingFiles(3);
+            scroole.generateFiles();
+            assertThat(scroole.getReport().maximumPendingFiles)
+                    .isLessThanOrEqualTo(3);
+            assertThat(scroole.getReport().regeneratedFiles).isEqualTo(500);
+        }
+
+        @Test
+        public void number_of_pending_files_does_not_grow_with_the_number_of_scroole_files()
+                throws Exception {
+            for (int files = 10; files <= 2560; files *= 4) {
+                createScrooleFiles(files);
+                Scroole scroole = new Scroole(
+                        directoryWithScrooleFiles, outputDirectory);
+                scroole.setThreads(2);
+                scroole.generateFiles();
+                //the default is four pending files per thread
+                assertThat(scroole.getReport().maximumPendingFiles)
+                        .isLessThanOrEqualTo(8);
+            }
+        }
+
+        @Test
+        public void cannot_use_zero_pending_files() throws Exception {
+            Scroole scroole = new Scroole(
+                    directoryWithScrooleFiles, outputDirectory);
+            thrown.expect(IllegalArgumentException.class);
+            scroole.setMaximumPendingFiles(0);
+        }
+
+        private void createScrooleFiles(int number) throws IOException {
+            for (int i = 0; i < number; ++i)
+                write(new File(directoryWithScrooleFiles,
+                        "a/b" + (i % 10) + "/Simple" + i + ".scroole"),
+                        "name: String\nnumber: int");
+        }
+    }
+
+    public static class GeneratesFilesOfManyModulesConcurrently {
+        private static final int MODULES = 16;
+        private static final int SCROOLE_FILES = 25;
+        private static final String[] TYPES = {"String", "int", "long[]",
+                "java.util.List<String>", "java.util.Map<String, Long>"};
+
+        @Rule
+        public final TemporaryFolder folder = new TemporaryFolder();
+
+        private final List<File> sourceDirectories = new ArrayList<>();
+        private final List<File> outputDirectories = new ArrayList<>();
+        private GenerationCache cache;
+
+        @Before
+        public void createModules() throws IOException {
+            cache = new GenerationCache(folder.newFolder(), 1000000);
+            for (int module = 0; module < MODULES; ++module) {
+                File sourceDirectory = folder.newFolder();
+                for (int i = 0; i < SCROOLE_FILES; ++i)
+                    write(new File(sourceDirectory, "a/Simple" + i + ".scroole"),
+                            scrooleCode(module, i));
+                sourceDirectories.add(sourceDirectory);
+                outputDirectories.add(folder.newFolder());
+            }
+        }
+
+        //half of the modules have the same Scroole files
+        private String scrooleCode(int module, int i) {
+            int type = (module % 2 == 0 ? 0 : module + i) % TYPES.length;
+            return "field" + i + ": " + TYPES[type] + "\nother: double";
+        }
+
+        @Test
+        public void generates_same_java_files_like_a_single_thread()
+                throws Exception {
+            generateFilesOfAllModulesConcurrently(OutputFormat.SOURCE);
+            assertSameFilesLikeSingleThread(".java");
+        }
+
+        @Test
+        public void generates_same_class_files_like_a_single_thread()
+                throws Exception {
+            generateFilesOfAllModulesConcurrently(OutputFormat.BYTECODE);
+            assertSameFilesLikeSingleThread(".class");
+        }
+
+        private void generateFilesOfAllModulesConcurrently(
+                final OutputFormat outputFormat) throws Exception {
+            ExecutorService executor = Executors.newFixedThreadPool(MODULES);
+            try {
+                final CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> results = new ArrayList<>();
+                for (int module = 0; module < MODULES; ++module) {
+                    final Scroole scroole = new Scroole(
+                            sourceDirectories.get(module),
+                            outputDirectories.get(module));
+                    scroole.setOutputFormat(outputFormat);
+                    scroole.setThreads(2);
+                    scroole.setCache(cache);
+                    results.add(executor.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() throws Exception {
+                            start.await();
+                            scroole.generateFiles();
+                            return null;
+                        }
+                    }));
+                }
+                start.countDown();
+                for (Future<?> result : results)
+                    result.get(1, MINUTES);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        private void assertSameFilesLikeSingleThread(String suffix)
+                throws Exception {
+            for (int module = 0; module < MODULES; ++module)
+                for (int i = 0; i < SCROOLE_FILES; ++i) {
+                    ClassSpecification specification = new Parser().parse(
+                            "a.Simple" + i, scrooleCode(module, i));
+                    byte[] expected = suffix.equals(".java")
+                            ? new CodeGenerator().createCode(specification)
+                                    .getBytes("UTF-8")
+                            : new BytecodeGenerator()
+                                    .createBytecode(specification);
+                    File file = new File(outputDirectories.get(module),
+                            "a/Simple" + i + suffix);
+                    assertThat(readFileToByteArray(file)).isEqualTo(expected);
+                }
+        }
+    }
+
     public static class ValidatesConstructorArguments {
         @Rule
         public final TemporaryFolder folder = new TemporaryFolder();
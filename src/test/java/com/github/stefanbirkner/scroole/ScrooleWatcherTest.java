@@ -0,0 +1,126 @@
+package com.github.stefanbirkner.scroole;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.commons.io.FileUtils.readFileToString;
+import static org.apache.commons.io.FileUtils.write;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScrooleWatcherTest {
+    private static final int TIMEOUT = 30;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final BlockingQueue<Object> results = new LinkedBlockingQueue<>();
+    private File directoryWithScrooleFiles;
+    private File outputDirectory;
+    private ScrooleWatcher watcher;
+    private Thread thread;
+
+    @Before
+    public void startWatcher() throws Exception {
+        directoryWithScrooleFiles = folder.newFolder();
+        outputDirectory = folder.newFolder();
+        createScrooleFile("Initial.scroole", "name: String");
+        watcher = new ScrooleWatcher(
+                new Scroole(directoryWithScrooleFiles, outputDirectory));
+        watcher.setDebounceTime(200);
+        watcher.setListener(new ScrooleWatcher.Listener() {
+            @Override
+            public void generated(GenerationReport report) {
+                results.add(report);
+            }
+
+            @Override
+            public void failed(IOException e) {
+                results.add(e);
+            }
+        });
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    watcher.run();
+                } catch (IOException e) {
+                    results.add(e);
+                }
+            }
+        });
+        thread.start();
+        nextResult();
+    }
+
+    @After
+    public void stopWatcher() throws Exception {
+        watcher.close();
+        thread.join(SECONDS.toMillis(TIMEOUT));
+    }
+
+    @Test
+    public void generates_all_java_files_when_it_starts() {
+        assertThat(javaFile("Initial.java")).exists();
+    }
+
+    @Test
+    public void generates_java_file_of_new_scroole_file() throws Exception {
+        createScrooleFile("Simple.scroole", "name: String");
+        nextResult();
+        assertThat(javaFile("Simple.java")).exists();
+    }
+
+    @Test
+    public void regenerates_java_file_of_changed_scroole_file()
+            throws Exception {
+        createScrooleFile("Initial.scroole", "title: String");
+        nextResult();
+        assertThat(readFileToString(javaFile("Initial.java")))
+                .contains("getTitle");
+    }
+
+    @Test
+    public void deletes_java_file_of_deleted_scroole_file() throws Exception {
+        new File(directoryWithScrooleFiles, "Initial.scroole").delete();
+        nextResult();
+        assertThat(javaFile("Initial.java")).doesNotExist();
+    }
+
+    @Test
+    public void generates_java_file_of_scroole_file_in_new_directory()
+            throws Exception {
+        createScrooleFile("sub/Simple.scroole", "name: String");
+        nextResult();
+        assertThat(javaFile("sub/Simple.java")).exists();
+    }
+
+    @Test
+    public void reports_invalid_scroole_file() throws Exception {
+        createScrooleFile("Broken.scroole", "name");
+        assertThat(nextResult()).isInstanceOf(GenerationException.class);
+    }
+
+    private void createScrooleFile(String path, String content)
+            throws IOException {
+        write(new File(directoryWithScrooleFiles, path), content);
+    }
+
+    private File javaFile(String path) {
+        return new File(outputDirectory, path);
+    }
+
+    private Object nextResult() throws InterruptedException {
+        Object result = results.poll(TIMEOUT, SECONDS);
+        assertThat(result).isNotNull();
+        return result;
+    }
+}
@@ -0,0 +1,157 @@
+package com.github.stefanbirkner.scroole.cli;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import static org.apache.commons.io.FileUtils.write;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ScrooleCliTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+    private File sourceDirectory;
+    private File outputDirectory;
+
+    @Before
+    public void createDirectories() throws IOException {
+        sourceDirectory = folder.newFolder();
+        outputDirectory = folder.newFolder();
+        createScrooleFile("a/First.scroole", "name: String");
+        createScrooleFile("a/Second.scroole", "number: int");
+    }
+
+    @Test
+    public void generates_java_files_of_all_scroole_files() {
+        int status = run("", "-s", sourceDirectory.getPath(),
+                "-o", outputDirectory.getPath());
+        assertThat(status).isEqualTo(ScrooleCli.SUCCESS);
+        assertThat(outputFile("a/First.java")).exists();
+        assertThat(outputFile("a/Second.java")).exists();
+    }
+
+    @Test
+    public void generates_java_files_of_given_scroole_files_only() {
+        run("", "-s", sourceDirectory.getPath(),
+                "-o", outputDirectory.getPath(),
+                scrooleFile("a/First.scroole").getPath());
+        assertThat(outputFile("a/First.java")).exists();
+        assertThat(outputFile("a/Second.java")).doesNotExist();
+    }
+
+    @Test
+    public void generates_java_files_of_scroole_files_from_stdin() {
+        run(scrooleFile("a/Second.scroole").getPath() + "\n\n",
+                "--source-directory", sourceDirectory.getPath(),
+                "--output-directory", outputDirectory.getPath(), "-");
+        assertThat(outputFile("a/First.java")).doesNotExist();
+        assertThat(outputFile("a/Second.java")).exists();
+    }
+
+    @Test
+    public void generates_class_files() {
+        run("", "-s", sourceDirectory.getPath(),
+                "-o", outputDirectory.getPath(), "--format", "bytecode",
+                "--manifest-directory", folder.getRoot().getPath());
+        assertThat(outputFile("a/First.class")).exists();
+    }
+
+    @Test
+    public void prints_statistics_if_verbose() {
+        run("", "-s", sourceDirectory.getPath(),
+                "-o", outputDirectory.getPath(), "-v");
+        assertThat(out.toString()).startsWith("Processed 2 Scroole file(s)");
+    }
+
+    @Test
+    public void prints_nothing_by_default() {
+        run("", "-s", sourceDirectory.getPath(),
+                "-o", outputDirectory.getPath());
+        assertThat(out.toString()).isEmpty();
+    }
+
+    @Test
+    public void reports_invalid_scroole_file_with_position()
+            throws Exception {
+        createScrooleFile("a/Broken.scroole", "no type");
+        int status = run("", "-s", sourceDirectory.getPath(),
+                "-o", outputDirectory.getPath());
+        assertThat(status).isEqualTo(ScrooleCli.GENERATION_FAILED);
+        assertThat(err.toString())
+                .contains(scrooleFile("a/Broken.scroole") + ":1:");
+    }
+
+    @Test
+    public void rejects_missing_output_directory() {
+        int status = run("", "-s", sourceDirectory.getPath());
+        assertThat(status).isEqualTo(ScrooleCli.INVALID_ARGUMENTS);
+        assertThat(err.toString()).contains("output directory is missing");
+    }
+
+    @Test
+    public void rejects_unknown_option() {
+        int status = run("", "-s", sourceDirectory.getPath(),
+                "-o", outputDirectory.getPath(), "--unknown", "value");
+        assertThat(status).isEqualTo(ScrooleCli.INVALID_ARGUMENTS);
+    }
+
+    @Test
+    public void rejects_number_of_threads_that_is_not_an_int() {
+        int status = run("", "-s", sourceDirectory.getPath(),
+                "-o", outputDirectory.getPath(), "--threads", "4294967297");
+        assertThat(status).isEqualTo(ScrooleCli.INVALID_ARGUMENTS);
+        assertThat(err.toString()).contains("Usage: scroole");
+    }
+
+    @Test
+    public void rejects_zero_threads() {
+        int status = run("", "-s", sourceDirectory.getPath(),
+                "-o", outputDirectory.getPath(), "--threads", "0");
+        assertThat(status).isEqualTo(ScrooleCli.INVALID_ARGUMENTS);
+        assertThat(err.toString()).contains("Usage: scroole");
+    }
+
+    @Test
+    public void rejects_non_existing_source_directory() {
+        int status = run("", "-s", new File(folder.getRoot(), "missing")
+                .getPath(), "-o", outputDirectory.getPath());
+        assertThat(status).isEqualTo(ScrooleCli.INVALID_ARGUMENTS);
+    }
+
+    @Test
+    public void prints_usage() {
+        int status = run("", "--help");
+        assertThat(status).isEqualTo(ScrooleCli.SUCCESS);
+        assertThat(out.toString()).startsWith("Usage: scroole");
+    }
+
+    private int run(String stdin, String... args) {
+        ScrooleCli cli = new ScrooleCli(
+                new ByteArrayInputStream(stdin.getBytes()),
+                new PrintStream(out), new PrintStream(err));
+        return cli.run(args);
+    }
+
+    private void createScrooleFile(String path, String code)
+            throws IOException {
+        write(scrooleFile(path), code);
+    }
+
+    private File scrooleFile(String path) {
+        return new File(sourceDirectory, path);
+    }
+
+    private File outputFile(String path) {
+        return new File(outputDirectory, path);
+    }
+}
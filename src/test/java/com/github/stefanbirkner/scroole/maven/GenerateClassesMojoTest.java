@@ -0,0 +1,139 @@
+package com.github.stefanbirkner.scroole.maven;
+
+import com.github.stefanbirkner.scroole.OutputFormat;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.codehaus.plexus.util.Scanner;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonatype.plexus.build.incremental.DefaultBuildContext;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.apache.commons.io.FileUtils.readFileToString;
+import static org.apache.commons.io.FileUtils.write;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GenerateClassesMojoTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final IncrementalBuildContext buildContext
+            = new IncrementalBuildContext();
+    private final GenerateClassesMojo mojo = new GenerateClassesMojo();
+
+    @Before
+    public void configureMojo() throws IOException {
+        mojo.sourceDirectory = folder.newFolder();
+        mojo.outputDirectory = folder.newFolder();
+        mojo.outputFormat = OutputFormat.SOURCE;
+        mojo.threads = 1;
+        mojo.project = new MavenProject();
+        mojo.buildContext = buildContext;
+    }
+
+    @Test
+    public void generates_all_java_files_on_full_build() throws Exception {
+        createScrooleFile("a/First.scroole", "name: java.lang.String");
+        createScrooleFile("a/Second.scroole", "name: java.lang.String");
+        mojo.execute();
+        assertThat(javaFile("a/First.java")).exists();
+        assertThat(javaFile("a/Second.java")).exists();
+    }
+
+    @Test
+    public void regenerates_changed_scroole_files_only_on_incremental_build()
+            throws Exception {
+        createScrooleFile("a/First.scroole", "name: java.lang.String");
+        createScrooleFile("a/Second.scroole", "name: java.lang.String");
+        mojo.execute();
+        createScrooleFile("a/First.scroole", "title: java.lang.String");
+        createScrooleFile("a/Second.scroole", "title: java.lang.String");
+        buildContext.incremental = true;
+        buildContext.changedFiles = new String[]{"a/First.scroole"};
+        mojo.execute();
+        assertThat(readFileToString(javaFile("a/First.java")))
+                .contains("title");
+        assertThat(readFileToString(javaFile("a/Second.java")))
+                .doesNotContain("title");
+    }
+
+    @Test
+    public void deletes_java_files_of_deleted_scroole_files_on_incremental_build()
+            throws Exception {
+        createScrooleFile("a/First.scroole", "name: java.lang.String");
+        File second = createScrooleFile(
+                "a/Second.scroole", "name: java.lang.String");
+        mojo.execute();
+        assertThat(second.delete()).isTrue();
+        buildContext.incremental = true;
+        buildContext.deletedFiles = new String[]{"a/Second.scroole"};
+        mojo.execute();
+        assertThat(javaFile("a/First.java")).exists();
+        assertThat(javaFile("a/Second.java")).doesNotExist();
+    }
+
+    @Test
+    public void does_not_generate_java_files_on_incremental_build_without_changes()
+            throws Exception {
+        createScrooleFile("a/First.scroole", "name: java.lang.String");
+        buildContext.incremental = true;
+        mojo.execute();
+        assertThat(javaFile("a/First.java")).doesNotExist();
+    }
+
+    private File createScrooleFile(String name, String content)
+            throws IOException {
+        File file = new File(mojo.sourceDirectory, name);
+        write(file, content, "UTF-8");
+        return file;
+    }
+
+    private File javaFile(String name) {
+        return new File(mojo.outputDirectory, name);
+    }
+
+    private static class IncrementalBuildContext extends DefaultBuildContext {
+        boolean incremental = false;
+        String[] changedFiles = new String[0];
+        String[] deletedFiles = new String[0];
+
+        @Override
+        public boolean isIncremental() {
+            return incremental;
+        }
+
+        @Override
+        public Scanner newScanner(File basedir) {
+            return new FixedScanner(basedir, changedFiles);
+        }
+
+        @Override
+        public Scanner newDeleteScanner(File basedir) {
+            return new FixedScanner(basedir, deletedFiles);
+        }
+    }
+
+    //reports the files of the build context instead of scanning the
+    //directory
+    private static class FixedScanner extends DirectoryScanner {
+        private final String[] files;
+
+        FixedScanner(File basedir, String[] files) {
+            setBasedir(basedir);
+            this.files = files;
+        }
+
+        @Override
+        public void scan() {
+        }
+
+        @Override
+        public String[] getIncludedFiles() {
+            return files;
+        }
+    }
+}
@@ -1,17 +1,29 @@
 package com.github.stefanbirkner.scroole.model;
 
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
 import java.util.List;
 
+import static java.nio.channels.Channels.newChannel;
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.junit.rules.ExpectedException.none;
 
 public class ParserTest {
     private static final List<Field> NO_FIELDS = emptyList();
     private static final String NO_JAVA_DOC = "";
     private final Parser parser = new Parser();
 
+    @Rule
+    public final ExpectedException thrown = none();
+
     @Test
     public void creates_model_for_class_in_default_package() {
         ClassSpecification model = parser.parse("dummyClass", "");
@@ -48,6 +60,35 @@ public class ParserTest {
                 new Field("title", "String", "some javadoc\n@since 0.1.0"));
     }
 
+    @Test
+    public void creates_model_for_class_with_option() {
+        ClassSpecification model = parser.parse(
+                "dummyClass", "@hashCode lazy\ntitle:String");
+        assertThat(model.getOption("hashCode")).isEqualTo("lazy");
+        assertThat(model.fields).containsExactly(
+                new Field("title", "String", NO_JAVA_DOC));
+    }
+
+    @Test
+    public void does_not_add_option_to_javadoc() {
+        ClassSpecification model = parser.parse(
+                "dummyClass", "#some javadoc\n@hashCode eager\n\ntitle:String");
+        assertThat(model.javadoc).isEqualTo("some javadoc");
+    }
+
+    @Test
+    public void creates_model_for_class_with_option_without_value() {
+        ClassSpecification model = parser.parse(
+                "dummyClass", "@intern\ntitle:String");
+        assertThat(model.getOption("intern")).isEmpty();
+    }
+
+    @Test
+    public void creates_model_without_options() {
+        ClassSpecification model = parser.parse("dummyClass", "title:String");
+        assertThat(model.options).isEmpty();
+    }
+
     @Test
     public void does_not_add_leading_spaces_to_field_name() {
         ClassSpecification model = parser.parse("dummyClass", "  title:String");
@@ -90,4 +131,138 @@ public class ParserTest {
         parser.parse("dummyClass", "\r\n");
         //everything is ok if no exception is thrown
     }
+
+    @Test
+    public void does_not_add_carriage_return_to_javadoc() {
+        ClassSpecification model = parser.parse(
+                "dummyClass", "#some javadoc\r\n\r\ntitle:String");
+        assertThat(model.javadoc).isEqualTo("some javadoc");
+    }
+
+    @Test
+    public void creates_model_from_reader() throws Exception {
+        ClassSpecification model = parser.parse("dummyClass",
+                new StringReader("#some javadoc\n\ntitle:String"));
+        assertThat(model).isEqualTo(new ClassSpecification("dummyClass",
+                "some javadoc", asList(new Field("title", "String", ""))));
+    }
+
+    @Test
+    public void creates_model_from_channel() throws Exception {
+        Charset utf8 = Charset.forName("UTF-8");
+        byte[] scrooleCode = "#some javadoc\n\ntitle:String".getBytes(utf8);
+        ClassSpecification model = parser.parse("dummyClass",
+                newChannel(new ByteArrayInputStream(scrooleCode)), utf8);
+        assertThat(model).isEqualTo(new ClassSpecification("dummyClass",
+                "some javadoc", asList(new Field("title", "String", ""))));
+    }
+
+    @Test
+    public void reports_line_without_colon() {
+        thrown.expect(InvalidScrooleCodeException.class);
+        thrown.expectMessage("line 2, column 3: Expected ':' between field name and type.");
+        parser.parse("dummyClass", "title:String\n  name String");
+    }
+
+    @Test
+    public void reports_line_without_field_name() {
+        thrown.expect(InvalidScrooleCodeException.class);
+        thrown.expectMessage("line 1, column 3: Missing field name before ':'.");
+        parser.parse("dummyClass", "  :String");
+    }
+
+    @Test
+    public void reports_line_without_type() {
+        thrown.expect(InvalidScrooleCodeException.class);
+        thrown.expectMessage("line 1, column 6: Missing type after ':'.");
+        parser.parse("dummyClass", "title:  ");
+    }
+
+    @Test
+    public void reports_invalid_field_name() {
+        thrown.expect(InvalidScrooleCodeException.class);
+        thrown.expectMessage("line 1, column 3: Invalid field name.");
+        parser.parse("dummyClass", "ti-tle:String");
+    }
+
+    @Test
+    public void reports_second_colon() {
+        thrown.expect(InvalidScrooleCodeException.class);
+        thrown.expectMessage("line 1, column 13: Unexpected ':' in type.");
+        parser.parse("dummyClass", "title:String:int");
+    }
+
+    @Test
+    public void reports_unknown_option() {
+        thrown.expect(InvalidScrooleCodeException.class);
+        thrown.expectMessage("line 1, column 1: Unknown option @hashcode.");
+        parser.parse("dummyClass", "@hashcode lazy");
+    }
+
+    @Test
+    public void reports_invalid_value_of_hash_code_option() {
+        thrown.expect(InvalidScrooleCodeException.class);
+        thrown.expectMessage(
+                "line 1, column 11: Expected 'lazy' or 'eager' after @hashCode.");
+        parser.parse("dummyClass", "@hashCode always");
+    }
+
+    @Test
+    public void reports_value_of_intern_option() {
+        thrown.expect(InvalidScrooleCodeException.class);
+        thrown.expectMessage("line 1, column 9: Unexpected value after @intern.");
+        parser.parse("dummyClass", "@intern true");
+    }
+
+    @Test
+    public void reports_value_of_mutable_option() {
+        thrown.expect(InvalidScrooleCodeException.class);
+        thrown.expectMessage("line 1, column 10: Unexpected value after @mutable.");
+        parser.parse("dummyClass", "@mutable yes");
+    }
+
+    @Test
+    public void reports_invalid_range_of_flyweight_option() {
+        thrown.expect(InvalidScrooleCodeException.class);
+        thrown.expectMessage(
+                "line 1, column 12: Expected a range like 0..127 after @flyweight.");
+        parser.parse("dummyClass", "@flyweight 0-127");
+    }
+
+    @Test
+    public void reports_flyweight_option_with_object_field() {
+        thrown.expect(InvalidScrooleCodeException.class);
+        thrown.expectMessage("line 1, column 1: @flyweight needs fields of"
+                + " type byte, short, char, int or long but title is String.");
+        parser.parse("dummyClass", "@flyweight 0..127\ntitle:String");
+    }
+
+    @Test
+    public void reports_flyweight_range_that_exceeds_type_of_field() {
+        thrown.expect(InvalidScrooleCodeException.class);
+        thrown.expectMessage(
+                "line 1, column 1: The range of @flyweight exceeds the values of b.");
+        parser.parse("dummyClass", "@flyweight 0..255\nb:byte");
+    }
+
+    @Test
+    public void reports_flyweight_table_that_is_too_big() {
+        thrown.expect(InvalidScrooleCodeException.class);
+        thrown.expectMessage(
+                "line 1, column 1: @flyweight would create more than 65536 objects.");
+        parser.parse("dummyClass", "@flyweight 0..255\na:int\nb:int\nc:int");
+    }
+
+    @Test
+    public void reports_all_problems_of_the_scroole_code() {
+        try {
+            parser.parse("dummyClass", "title String\n\n:String\nname:");
+            fail("InvalidScrooleCodeException expected.");
+        } catch (InvalidScrooleCodeException e) {
+            assertThat(e.getDiagnostics()).containsExactly(
+                    new Diagnostic(1, 1, "Expected ':' between field name and type."),
+                    new Diagnostic(3, 1, "Missing field name before ':'."),
+                    new Diagnostic(4, 5, "Missing type after ':'."));
+        }
+    }
 }
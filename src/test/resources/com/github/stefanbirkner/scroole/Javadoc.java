@@ -50,14 +50,7 @@ public class Javadoc {
     else if (other == null || getClass() != other.getClass())
         return false;
     Javadoc that = (Javadoc) other;
-    return equals(name, that.name)
-            && count == that.count;
-  }
-
-  private boolean equals(Object left, Object right) {
-    if (left == null)
-        return right == null;
-    else
-        return left.equals(right);
+    return count == that.count
+            && (name == that.name || name != null && name.equals(that.name));
   }
 }
@@ -55,16 +55,9 @@ public class Simple {
     else if (other == null || getClass() != other.getClass())
         return false;
     Simple that = (Simple) other;
-    return equals(name, that.name)
-            && count == that.count
-            && java.util.Arrays.equals(children, that.children)
-            && equals(numbers, that.numbers);
-  }
-
-  private boolean equals(Object left, Object right) {
-    if (left == null)
-        return right == null;
-    else
-        return left.equals(right);
+    return count == that.count
+            && (name == that.name || name != null && name.equals(that.name))
+            && (numbers == that.numbers || numbers != null && numbers.equals(that.numbers))
+            && java.util.Arrays.equals(children, that.children);
   }
 }